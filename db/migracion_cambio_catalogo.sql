@@ -0,0 +1,12 @@
+-- Migración: registro de cambios para mantener al día las cachés de todas las terminales
+-- Ejecutar una vez en bases de datos creadas antes de agregar la sincronización del catálogo
+
+USE cobra_te;
+
+-- Registro de cambios de catálogo y usuarios que leen las demás terminales para actualizar sus cachés
+CREATE TABLE IF NOT EXISTS cambioCatalogo (
+    version BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entidad VARCHAR(20) NOT NULL,
+    idEntidad INT NOT NULL,
+    fecha DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
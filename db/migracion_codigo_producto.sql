@@ -0,0 +1,7 @@
+-- Migración: código de barras o SKU de los productos para venderlos con el lector
+-- Ejecutar una vez en bases de datos creadas antes de agregar los códigos
+
+USE cobra_te;
+
+ALTER TABLE producto ADD COLUMN IF NOT EXISTS codigo VARCHAR(32) NULL AFTER precio;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_producto_codigo ON producto(codigo);
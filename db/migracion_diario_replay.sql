@@ -0,0 +1,10 @@
+-- Migración: tabla para el reenvío idempotente del diario local de ventas
+-- Ejecutar una vez en bases de datos creadas antes de agregar el diario
+
+USE cobra_te;
+
+CREATE TABLE IF NOT EXISTS diarioReplay (
+    terminal VARCHAR(64) PRIMARY KEY,
+    ultimaSecuencia BIGINT NOT NULL,
+    actualizado DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
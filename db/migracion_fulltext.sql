@@ -0,0 +1,7 @@
+-- Migración: índices FULLTEXT para la búsqueda de productos y categorías por texto
+-- Ejecutar una vez en bases de datos creadas antes de agregar la búsqueda por texto completo
+
+USE cobra_te;
+
+CREATE FULLTEXT INDEX IF NOT EXISTS ft_producto_texto ON producto(nombre, descripcion);
+CREATE FULLTEXT INDEX IF NOT EXISTS ft_categoria_texto ON categoria(nombre, descripcion);
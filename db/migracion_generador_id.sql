@@ -0,0 +1,13 @@
+-- Migración: contador de bloques de IDs de venta asignados por las terminales
+-- Ejecutar una vez en bases de datos creadas antes de asignar IDs en el cliente
+
+USE cobra_te;
+
+CREATE TABLE IF NOT EXISTS generadorId (
+    nombre VARCHAR(64) PRIMARY KEY,
+    siguiente BIGINT NOT NULL
+);
+
+-- El contador empieza después de la última venta existente
+INSERT IGNORE INTO generadorId (nombre, siguiente)
+SELECT 'venta', COALESCE(MAX(idVenta), 0) + 1 FROM venta;
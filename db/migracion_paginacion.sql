@@ -0,0 +1,8 @@
+-- Migración: índice para paginar usuarios por apellido (findPage)
+-- Ejecutar una vez en bases de datos creadas antes de la paginación por cursor
+-- Las ventas paginan por (fecha, idVenta) con idx_venta_fecha(fecha): InnoDB ya guarda la llave primaria
+-- en cada índice secundario, así que no hace falta cambiarlo
+
+USE cobra_te;
+
+CREATE INDEX IF NOT EXISTS idx_usuario_apellido ON usuario(apellidoPaterno, idUsuario);
@@ -24,7 +24,9 @@ CREATE TABLE producto (
     nombre VARCHAR(100) NOT NULL,
     descripcion TEXT,
     tamano VARCHAR(50) NULL,
-    precio DECIMAL(10,2) NOT NULL
+    precio DECIMAL(10,2) NOT NULL,
+    codigo VARCHAR(32) NULL,
+    UNIQUE KEY ux_producto_codigo (codigo)
 );
 
 CREATE TABLE productoCategoria (
@@ -51,3 +53,26 @@ CREATE TABLE ventaProducto (
     FOREIGN KEY (idVenta) REFERENCES venta(idVenta),
     FOREIGN KEY (idProducto) REFERENCES producto(idProducto)
 );
+
+CREATE TABLE diarioReplay (
+    terminal VARCHAR(64) PRIMARY KEY,
+    ultimaSecuencia BIGINT NOT NULL,
+    actualizado DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE generadorId (
+    nombre VARCHAR(64) PRIMARY KEY,
+    siguiente BIGINT NOT NULL
+);
+
+-- Registro de cambios de catálogo y usuarios que leen las demás terminales para actualizar sus cachés
+CREATE TABLE cambioCatalogo (
+    version BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entidad VARCHAR(20) NOT NULL,
+    idEntidad INT NOT NULL,
+    fecha DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
+
+-- Índices FULLTEXT para buscar productos y categorías por texto
+CREATE FULLTEXT INDEX ft_producto_texto ON producto(nombre, descripcion);
+CREATE FULLTEXT INDEX ft_categoria_texto ON categoria(nombre, descripcion);
@@ -36,6 +36,7 @@ CREATE TABLE IF NOT EXISTS producto (
     descripcion TEXT,
     tamano VARCHAR(50) NULL,
     precio DECIMAL(10,2) NOT NULL CHECK (precio >= 0),
+    codigo VARCHAR(32) NULL,
     fechaCreacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     activo BOOLEAN DEFAULT TRUE
 );
@@ -71,6 +72,26 @@ CREATE TABLE IF NOT EXISTS ventaProducto (
     FOREIGN KEY (idProducto) REFERENCES producto(idProducto)
 );
 
+-- Última secuencia del diario local de ventas escrita por cada terminal
+CREATE TABLE IF NOT EXISTS diarioReplay (
+    terminal VARCHAR(64) PRIMARY KEY,
+    ultimaSecuencia BIGINT NOT NULL,
+    actualizado DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS generadorId (
+    nombre VARCHAR(64) PRIMARY KEY,
+    siguiente BIGINT NOT NULL
+);
+
+-- Registro de cambios de catálogo y usuarios que leen las demás terminales para actualizar sus cachés
+CREATE TABLE IF NOT EXISTS cambioCatalogo (
+    version BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entidad VARCHAR(20) NOT NULL,
+    idEntidad INT NOT NULL,
+    fecha DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
+
 -- Insertar datos de ejemplo
 -- Usuarios
 INSERT IGNORE INTO usuario (rol, contrasena, nombres, apellidoPaterno, apellidoMaterno, correo, telefono, sexo) VALUES
@@ -154,8 +175,14 @@ INSERT IGNORE INTO productoCategoria (idProducto, idCategoria) VALUES
 -- Crear índices para mejorar rendimiento
 CREATE INDEX IF NOT EXISTS idx_usuario_correo ON usuario(correo);
 CREATE INDEX IF NOT EXISTS idx_usuario_rol ON usuario(rol);
+CREATE INDEX IF NOT EXISTS idx_usuario_apellido ON usuario(apellidoPaterno, idUsuario);
 CREATE INDEX IF NOT EXISTS idx_producto_nombre ON producto(nombre);
 CREATE INDEX IF NOT EXISTS idx_producto_precio ON producto(precio);
+-- Código de barras o SKU; varios productos pueden no tener código (NULL)
+CREATE UNIQUE INDEX IF NOT EXISTS ux_producto_codigo ON producto(codigo);
+-- Búsqueda por texto: un LIKE '%x%' no puede usar idx_producto_nombre y recorre toda la tabla
+CREATE FULLTEXT INDEX IF NOT EXISTS ft_producto_texto ON producto(nombre, descripcion);
+CREATE FULLTEXT INDEX IF NOT EXISTS ft_categoria_texto ON categoria(nombre, descripcion);
 CREATE INDEX IF NOT EXISTS idx_venta_fecha ON venta(fecha);
 CREATE INDEX IF NOT EXISTS idx_venta_usuario ON venta(idUsuario);
 
@@ -16,4 +16,8 @@ module cobra.te {
     exports org.database;
     exports org.models;
     exports org.dao;
+    exports org.services;
+    exports org.cache;
+    exports org.search;
+    exports org.components;
 }
\ No newline at end of file
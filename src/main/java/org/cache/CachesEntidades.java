@@ -0,0 +1,33 @@
+package org.cache;
+
+import org.models.Producto;
+import org.models.Usuario;
+
+/**
+ * Cachés por ID compartidas por los DAO para hidratar ventas y sus líneas sin repetir consultas.
+ * Los DAO las invalidan en cada escritura y el sincronizador con los cambios de otras terminales.
+ *
+ * Se configuran con -Dcobra.cache.capacidad (1024 entradas por omisión) y -Dcobra.cache.vidaMs
+ * (5 minutos por omisión).
+ */
+public final class CachesEntidades {
+    private static final int CAPACIDAD = Integer.getInteger("cobra.cache.capacidad", 1024);
+    private static final long VIDA_MS = Long.getLong("cobra.cache.vidaMs", 5 * 60 * 1000L);
+
+    private static final IntCache<Usuario> USUARIOS = new IntCache<>(CAPACIDAD, VIDA_MS);
+    private static final IntCache<Producto> PRODUCTOS = new IntCache<>(CAPACIDAD, VIDA_MS);
+
+    private CachesEntidades() {
+    }
+
+    public static IntCache<Usuario> usuarios() {
+        return USUARIOS;
+    }
+
+    /**
+     * Productos con sus categorías cargadas
+     */
+    public static IntCache<Producto> productos() {
+        return PRODUCTOS;
+    }
+}
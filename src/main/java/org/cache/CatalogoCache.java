@@ -0,0 +1,636 @@
+package org.cache;
+
+import org.dao.CambioCatalogoDao;
+import org.dao.CategoriaDao;
+import org.dao.ProductoDao;
+import org.database.DatabaseConnection;
+import org.models.Categoria;
+import org.models.Producto;
+import org.search.IndiceProductos;
+import org.utils.DatosLocales;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Copia en memoria del catálogo (productos, categorías y sus relaciones) compartida por toda la aplicación.
+ * Se carga en segundo plano la primera vez que se consulta y después los DAO la corrigen en cada escritura,
+ * así la navegación del punto de venta no vuelve a consultar la base de datos.
+ * Cada carga completa se guarda en una instantánea local con la que la siguiente ejecución
+ * arranca sin esperar a la base de datos.
+ *
+ * Los objetos devueltos son compartidos y no deben modificarse.
+ */
+public class CatalogoCache {
+    private static CatalogoCache instance;
+
+    // Espera entre cargas fallidas, para no reintentar la base de datos en cada consulta
+    private static final long ESPERA_INICIAL_MS = 1_000;
+    private static final long ESPERA_MAXIMA_MS = 30_000;
+    private static final Catalogo VACIO = new Catalogo(Map.of(), Map.of(), Map.of(), 0, false);
+
+    private final DatabaseConnection dbConnection;
+    private final ProductoDao productoDao;
+    private final CategoriaDao categoriaDao;
+    private final CambioCatalogoDao cambioCatalogoDao;
+    private final Path archivoInstantanea;
+    private final Object bloqueoInstantanea = new Object();
+    private long versionGuardada = -1;
+    private final List<Runnable> observadores = new CopyOnWriteArrayList<>();
+    // Se actualiza junto con cada cambio del catálogo, bajo el mismo bloqueo
+    private final IndiceProductos indice = new IndiceProductos();
+
+    // Se reemplaza completo en cada cambio; las lecturas no necesitan bloqueo
+    private volatile Catalogo catalogo;
+
+    // La carga inicial no toma el bloqueo de la caché mientras consulta la base de datos
+    private final Object bloqueoCarga = new Object();
+    private boolean cargando;
+    // Cambios de los DAO que llegan sin catálogo mientras la carga consulta la base de datos: se repiten
+    // al terminar porque la carga pudo leer las filas antes de ellos. Protegidos por bloqueoCarga
+    private final List<Runnable> cambiosDuranteCarga = new ArrayList<>();
+    private long siguienteCarga = System.nanoTime();
+    private long esperaCargaMs = ESPERA_INICIAL_MS;
+
+    private CatalogoCache() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.productoDao = new ProductoDao();
+        this.categoriaDao = new CategoriaDao();
+        this.cambioCatalogoDao = new CambioCatalogoDao();
+        this.archivoInstantanea = DatosLocales.directorio().resolve("catalogo.instantanea");
+    }
+
+    public static synchronized CatalogoCache getInstance() {
+        if (instance == null) {
+            instance = new CatalogoCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Obtiene todos los productos ordenados por nombre
+     */
+    public List<Producto> getProductos() {
+        return cargado().productosOrdenados;
+    }
+
+    /**
+     * Obtiene los productos de una categoría ordenados por nombre
+     */
+    public List<Producto> getProductosPorCategoria(int idCategoria) {
+        return cargado().porCategoria.getOrDefault(idCategoria, List.of());
+    }
+
+    /**
+     * Obtiene un producto por ID
+     *
+     * @return El producto, o null si no existe
+     */
+    public Producto getProducto(int idProducto) {
+        return cargado().productos.get(idProducto);
+    }
+
+    /**
+     * Obtiene un producto por su código de barras o SKU, sin consultar la base de datos
+     *
+     * @return El producto, o null si ningún producto tiene ese código
+     */
+    public Producto getProductoPorCodigo(String codigo) {
+        return codigo != null ? cargado().porCodigo.get(codigo.trim()) : null;
+    }
+
+    /**
+     * Busca productos por nombre, tamaño o descripción usando el índice en memoria
+     *
+     * @param texto       Términos a buscar; vacío devuelve todos
+     * @param idCategoria Categoría a la que se limita la búsqueda, o 0 para todas
+     * @return Productos que contienen todos los términos sin distinguir acentos, primero los que empiezan
+     *         con ellos; si hay pocos, siguen los parecidos con errores de escritura
+     */
+    public List<Producto> buscar(String texto, int idCategoria) {
+        Catalogo actual = cargado();
+        if (texto == null || texto.isBlank()) {
+            return idCategoria > 0 ? getProductosPorCategoria(idCategoria) : actual.productosOrdenados;
+        }
+
+        List<Producto> resultado = new ArrayList<>();
+        for (Integer id : indice.buscar(texto)) {
+            Producto producto = actual.productos.get(id);
+            if (producto != null && (idCategoria <= 0 || tieneCategoria(producto, idCategoria))) {
+                resultado.add(producto);
+            }
+        }
+        return resultado;
+    }
+
+    private static boolean tieneCategoria(Producto producto, int idCategoria) {
+        for (Categoria categoria : producto.getCategorias()) {
+            if (categoria.getIdCategoria() == idCategoria) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Obtiene todas las categorías ordenadas por nombre
+     */
+    public List<Categoria> getCategorias() {
+        return cargado().categoriasOrdenadas;
+    }
+
+    /**
+     * Versión del registro de cambios que ya refleja el catálogo en memoria
+     *
+     * @return La versión, o -1 si el catálogo no está cargado
+     */
+    public long getVersion() {
+        Catalogo actual = catalogo;
+        return actual != null ? actual.version : -1;
+    }
+
+    /**
+     * Marca el catálogo como al día hasta una versión del registro de cambios
+     */
+    public synchronized void sincronizadoHasta(long version) {
+        Catalogo actual = catalogo;
+        if (actual != null && version > actual.version) {
+            actual.version = version;
+        }
+    }
+
+    /**
+     * Registra una acción que se ejecuta cuando el catálogo cambia en segundo plano
+     * (carga inicial, reconciliación o cambios de otras terminales), en el hilo que hizo el cambio
+     */
+    public void agregarObservador(Runnable observador) {
+        observadores.add(observador);
+    }
+
+    public void quitarObservador(Runnable observador) {
+        observadores.remove(observador);
+    }
+
+    /**
+     * Carga el catálogo desde la instantánea local si aún no hay uno en memoria, sin tocar la base de datos.
+     * Queda pendiente de reconciliar con {@link #recargar()}.
+     *
+     * @return true si hay catálogo en memoria al terminar
+     */
+    public synchronized boolean cargarInstantanea() {
+        if (catalogo != null) {
+            return true;
+        }
+        try {
+            InstantaneaCatalogo instantanea = InstantaneaCatalogo.leer(archivoInstantanea);
+            if (instantanea == null) {
+                return false;
+            }
+            instalar(new Catalogo(instantanea.productos, instantanea.enlaces, instantanea.categorias,
+                    instantanea.version, false));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error al leer la instantánea del catálogo: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Indica si el catálogo en memoria viene de la instantánea y aún no se ha comparado con la base de datos
+     */
+    public boolean requiereReconciliar() {
+        Catalogo actual = catalogo;
+        return actual != null && !actual.reconciliado;
+    }
+
+    /**
+     * Vuelve a cargar todo el catálogo de la base de datos y lo reemplaza; mientras tanto se sigue
+     * consultando el anterior. Los cambios que entren durante la carga los repite el sincronizador.
+     */
+    public void recargar() throws SQLException {
+        Catalogo nuevo = cargar();
+        synchronized (this) {
+            instalar(nuevo);
+        }
+        // Puede tener la misma versión que la instantánea y aun así traer cambios hechos fuera de los DAO
+        guardarInstantanea(true);
+        notificar();
+    }
+
+    /**
+     * Guarda el catálogo en la instantánea local si cambió de versión desde la última vez
+     */
+    public void guardarInstantanea() {
+        guardarInstantanea(false);
+    }
+
+    private void guardarInstantanea(boolean aunSinCambioDeVersion) {
+        synchronized (bloqueoInstantanea) {
+            Catalogo actual = catalogo;
+            if (actual == null || !actual.reconciliado
+                    || (actual.version <= versionGuardada && !aunSinCambioDeVersion)) {
+                return;
+            }
+            try {
+                new InstantaneaCatalogo(actual.version, actual.filasProducto, actual.enlaces,
+                        actual.filasCategoria).guardar(archivoInstantanea);
+                versionGuardada = actual.version;
+            } catch (IOException e) {
+                System.err.println("Error al guardar la instantánea del catálogo: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Descarta el catálogo; se vuelve a cargar en la siguiente consulta
+     */
+    public synchronized void invalidar() {
+        catalogo = null;
+    }
+
+    /**
+     * Registra un producto insertado o actualizado. Conserva las categorías que ya tenía en caché.
+     */
+    public void productoGuardado(Producto producto) {
+        productosGuardados(List.of(producto));
+    }
+
+    /**
+     * Registra varios productos insertados o actualizados reconstruyendo el catálogo una sola vez.
+     * Conserva las categorías que ya tenían en caché.
+     */
+    public synchronized void productosGuardados(Collection<Producto> productos) {
+        Catalogo actual = catalogo;
+        if (actual == null) {
+            List<Producto> copias = productos.stream().map(CatalogoCache::copiar).toList();
+            repetirTrasCarga(() -> productosGuardados(copias));
+            return;
+        }
+        Map<Integer, Producto> filas = new HashMap<>(actual.filasProducto);
+        List<Integer> ids = new ArrayList<>(productos.size());
+        for (Producto producto : productos) {
+            if (producto.getIdProducto() != null) {
+                filas.put(producto.getIdProducto(), copiar(producto));
+                ids.add(producto.getIdProducto());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        Catalogo nuevo = new Catalogo(filas, actual.enlaces, actual.filasCategoria, actual.version,
+                actual.reconciliado);
+        catalogo = nuevo;
+        for (Integer id : ids) {
+            indice.agregar(nuevo.productos.get(id));
+        }
+    }
+
+    /**
+     * Aplica en un solo paso los cambios leídos del registro de otras terminales
+     *
+     * @param productos           Productos con sus categorías tal como están en la base de datos
+     * @param productosEliminados IDs de productos que ya no existen
+     * @param categorias          Categorías tal como están en la base de datos
+     * @param categoriasEliminadas IDs de categorías que ya no existen
+     * @param version             Versión del registro hasta la que quedan aplicados los cambios
+     */
+    public synchronized void aplicarCambios(Collection<Producto> productos, Collection<Integer> productosEliminados,
+                                            Collection<Categoria> categorias, Collection<Integer> categoriasEliminadas,
+                                            long version) {
+        Catalogo actual = catalogo;
+        if (actual == null) {
+            List<Producto> productosLeidos = List.copyOf(productos);
+            List<Integer> productosBorrados = List.copyOf(productosEliminados);
+            List<Categoria> categoriasLeidas = List.copyOf(categorias);
+            List<Integer> categoriasBorradas = List.copyOf(categoriasEliminadas);
+            repetirTrasCarga(() -> aplicarCambios(productosLeidos, productosBorrados, categoriasLeidas,
+                    categoriasBorradas, version));
+            return;
+        }
+        Map<Integer, Categoria> filasCategoria = new HashMap<>(actual.filasCategoria);
+        for (Categoria categoria : categorias) {
+            filasCategoria.put(categoria.getIdCategoria(), categoria);
+        }
+        filasCategoria.keySet().removeAll(categoriasEliminadas);
+
+        Map<Integer, Producto> filasProducto = new HashMap<>(actual.filasProducto);
+        Map<Integer, Set<Integer>> enlaces = new HashMap<>(actual.enlaces);
+        for (Producto producto : productos) {
+            filasProducto.put(producto.getIdProducto(), copiar(producto));
+            Set<Integer> suyas = new LinkedHashSet<>();
+            for (Categoria categoria : producto.getCategorias()) {
+                suyas.add(categoria.getIdCategoria());
+            }
+            enlaces.put(producto.getIdProducto(), suyas);
+        }
+        filasProducto.keySet().removeAll(productosEliminados);
+        enlaces.keySet().removeAll(productosEliminados);
+
+        Catalogo nuevo = new Catalogo(filasProducto, enlaces, filasCategoria, Math.max(actual.version, version),
+                actual.reconciliado);
+        catalogo = nuevo;
+        for (Producto producto : productos) {
+            if (!productosEliminados.contains(producto.getIdProducto())) {
+                indice.agregar(nuevo.productos.get(producto.getIdProducto()));
+            }
+        }
+        for (Integer idProducto : productosEliminados) {
+            indice.quitar(idProducto);
+        }
+        notificar();
+    }
+
+    public synchronized void productoEliminado(int idProducto) {
+        Catalogo actual = catalogo;
+        if (actual == null) {
+            repetirTrasCarga(() -> productoEliminado(idProducto));
+            return;
+        }
+        Map<Integer, Producto> filas = new HashMap<>(actual.filasProducto);
+        filas.remove(idProducto);
+        Map<Integer, Set<Integer>> enlaces = new HashMap<>(actual.enlaces);
+        enlaces.remove(idProducto);
+        catalogo = new Catalogo(filas, enlaces, actual.filasCategoria, actual.version, actual.reconciliado);
+        indice.quitar(idProducto);
+    }
+
+    public synchronized void categoriaAsignada(int idProducto, int idCategoria) {
+        Catalogo actual = catalogo;
+        if (actual == null) {
+            repetirTrasCarga(() -> categoriaAsignada(idProducto, idCategoria));
+            return;
+        }
+        Map<Integer, Set<Integer>> enlaces = new HashMap<>(actual.enlaces);
+        Set<Integer> categorias = new LinkedHashSet<>(enlaces.getOrDefault(idProducto, Set.of()));
+        categorias.add(idCategoria);
+        enlaces.put(idProducto, categorias);
+        catalogo = new Catalogo(actual.filasProducto, enlaces, actual.filasCategoria, actual.version, actual.reconciliado);
+    }
+
+    public synchronized void categoriaDesasignada(int idProducto, int idCategoria) {
+        Catalogo actual = catalogo;
+        if (actual == null) {
+            repetirTrasCarga(() -> categoriaDesasignada(idProducto, idCategoria));
+            return;
+        }
+        Map<Integer, Set<Integer>> enlaces = new HashMap<>(actual.enlaces);
+        Set<Integer> categorias = new LinkedHashSet<>(enlaces.getOrDefault(idProducto, Set.of()));
+        categorias.remove(idCategoria);
+        enlaces.put(idProducto, categorias);
+        catalogo = new Catalogo(actual.filasProducto, enlaces, actual.filasCategoria, actual.version, actual.reconciliado);
+    }
+
+    /**
+     * Registra una categoría insertada o actualizada; los productos que la tienen ven el cambio
+     */
+    public void categoriaGuardada(Categoria categoria) {
+        categoriasGuardadas(List.of(categoria));
+    }
+
+    /**
+     * Registra varias categorías insertadas o actualizadas reconstruyendo el catálogo una sola vez
+     */
+    public synchronized void categoriasGuardadas(Collection<Categoria> categorias) {
+        Catalogo actual = catalogo;
+        if (actual == null) {
+            List<Categoria> copias = categorias.stream()
+                    .map(c -> new Categoria(c.getIdCategoria(), c.getNombre(), c.getDescripcion()))
+                    .toList();
+            repetirTrasCarga(() -> categoriasGuardadas(copias));
+            return;
+        }
+        Map<Integer, Categoria> filas = new HashMap<>(actual.filasCategoria);
+        boolean cambio = false;
+        for (Categoria categoria : categorias) {
+            if (categoria.getIdCategoria() != null) {
+                filas.put(categoria.getIdCategoria(),
+                        new Categoria(categoria.getIdCategoria(), categoria.getNombre(), categoria.getDescripcion()));
+                cambio = true;
+            }
+        }
+        if (cambio) {
+            catalogo = new Catalogo(actual.filasProducto, actual.enlaces, filas, actual.version, actual.reconciliado);
+        }
+    }
+
+    /**
+     * Registra una categoría eliminada; la base de datos borra en cascada sus relaciones con productos
+     */
+    public synchronized void categoriaEliminada(int idCategoria) {
+        Catalogo actual = catalogo;
+        if (actual == null) {
+            repetirTrasCarga(() -> categoriaEliminada(idCategoria));
+            return;
+        }
+        Map<Integer, Categoria> filas = new HashMap<>(actual.filasCategoria);
+        filas.remove(idCategoria);
+        catalogo = new Catalogo(actual.filasProducto, actual.enlaces, filas, actual.version, actual.reconciliado);
+    }
+
+    /**
+     * Devuelve el catálogo. Si no hay uno en memoria inicia su carga en segundo plano y devuelve un
+     * catálogo vacío sin esperar; al terminar la carga se avisa a los observadores. Tras una carga
+     * fallida no se vuelve a intentar hasta que pase la espera, que se duplica con cada fallo.
+     */
+    private Catalogo cargado() {
+        Catalogo actual = catalogo;
+        if (actual != null) {
+            return actual;
+        }
+        synchronized (bloqueoCarga) {
+            if (!cargando && System.nanoTime() - siguienteCarga >= 0) {
+                cargando = true;
+                Thread.ofVirtual().name("catalogo-carga").start(this::cargarEnSegundoPlano);
+            }
+        }
+        return VACIO;
+    }
+
+    private void cargarEnSegundoPlano() {
+        Catalogo nuevo = null;
+        try {
+            nuevo = cargar();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Error al cargar el catálogo: " + e.getMessage());
+        }
+
+        boolean instalado = false;
+        synchronized (this) {
+            // La instantánea o una recarga pudieron instalar otro mientras tanto
+            if (nuevo != null && catalogo == null) {
+                instalar(nuevo);
+                instalado = true;
+            }
+            List<Runnable> cambios;
+            synchronized (bloqueoCarga) {
+                cargando = false;
+                if (nuevo == null) {
+                    siguienteCarga = System.nanoTime() + esperaCargaMs * 1_000_000L;
+                    esperaCargaMs = Math.min(ESPERA_MAXIMA_MS, esperaCargaMs * 2);
+                } else {
+                    esperaCargaMs = ESPERA_INICIAL_MS;
+                }
+                cambios = new ArrayList<>(cambiosDuranteCarga);
+                cambiosDuranteCarga.clear();
+            }
+            // Sin catálogo (la carga falló) se descartan: ya están en la base de datos y la siguiente
+            // carga los lee
+            if (catalogo != null) {
+                for (Runnable cambio : cambios) {
+                    cambio.run();
+                }
+            }
+        }
+        if (instalado) {
+            guardarInstantanea();
+            notificar();
+        }
+    }
+
+    /**
+     * Guarda un cambio que llegó sin catálogo en memoria si hay una carga en curso; se llama con el
+     * bloqueo de la caché tomado
+     */
+    private void repetirTrasCarga(Runnable cambio) {
+        synchronized (bloqueoCarga) {
+            if (cargando) {
+                cambiosDuranteCarga.add(cambio);
+            }
+        }
+    }
+
+    private Catalogo cargar() throws SQLException {
+        try (Connection conn = dbConnection.getConnection()) {
+            // La versión se lee primero: los cambios que entren durante la carga se vuelven a aplicar
+            long version = cambioCatalogoDao.findUltimaVersion(conn);
+
+            Map<Integer, Categoria> categorias = new HashMap<>();
+            for (Categoria categoria : categoriaDao.findAll(conn)) {
+                categorias.put(categoria.getIdCategoria(), categoria);
+            }
+
+            Map<Integer, Producto> productos = new HashMap<>();
+            Map<Integer, Set<Integer>> enlaces = new HashMap<>();
+            for (Producto producto : productoDao.findAll(conn)) {
+                productos.put(producto.getIdProducto(), producto);
+                Set<Integer> ids = new LinkedHashSet<>();
+                for (Categoria categoria : producto.getCategorias()) {
+                    ids.add(categoria.getIdCategoria());
+                }
+                enlaces.put(producto.getIdProducto(), ids);
+            }
+            return new Catalogo(productos, enlaces, categorias, version, true);
+        }
+    }
+
+    /**
+     * Reemplaza todo el catálogo y reconstruye el índice de búsqueda; se llama con el bloqueo tomado
+     */
+    private void instalar(Catalogo nuevo) {
+        catalogo = nuevo;
+        indice.reconstruir(nuevo.productos.values());
+    }
+
+    private void notificar() {
+        for (Runnable observador : observadores) {
+            observador.run();
+        }
+    }
+
+    private static Producto copiar(Producto producto) {
+        Producto copia = new Producto(producto.getNombre(), producto.getDescripcion(),
+                producto.getTamano(), producto.getPrecio());
+        copia.setIdProducto(producto.getIdProducto());
+        copia.setCodigo(producto.getCodigo());
+        return copia;
+    }
+
+    /**
+     * Estado inmutable del catálogo con los índices que usa el punto de venta
+     */
+    private static final class Catalogo {
+        // Filas tal como vienen de la base de datos, base para el siguiente cambio
+        final Map<Integer, Producto> filasProducto;
+        final Map<Integer, Set<Integer>> enlaces;
+        final Map<Integer, Categoria> filasCategoria;
+
+        final Map<Integer, Producto> productos;
+        final List<Producto> productosOrdenados;
+        final Map<Integer, List<Producto>> porCategoria;
+        final Map<String, Producto> porCodigo;
+        final List<Categoria> categoriasOrdenadas;
+
+        // false mientras solo se conoce por la instantánea local
+        final boolean reconciliado;
+
+        // Solo avanza, bajo el bloqueo de la caché
+        volatile long version;
+
+        Catalogo(Map<Integer, Producto> filasProducto, Map<Integer, Set<Integer>> enlaces,
+                 Map<Integer, Categoria> filasCategoria, long version, boolean reconciliado) {
+            this.version = version;
+            this.reconciliado = reconciliado;
+            this.filasProducto = filasProducto;
+            this.enlaces = enlaces;
+            this.filasCategoria = filasCategoria;
+
+            // Mismo orden que la intercalación de la base de datos: sin distinguir mayúsculas ni acentos
+            Collator collator = Collator.getInstance(Locale.forLanguageTag("es"));
+            collator.setStrength(Collator.PRIMARY);
+
+            List<Categoria> categorias = new ArrayList<>(filasCategoria.values());
+            categorias.sort(Comparator.comparing(Categoria::getNombre, collator)
+                    .thenComparing(Categoria::getIdCategoria));
+            this.categoriasOrdenadas = Collections.unmodifiableList(categorias);
+
+            Map<Integer, Producto> productos = new HashMap<>();
+            Map<String, Producto> porCodigo = new HashMap<>();
+            List<Producto> ordenados = new ArrayList<>(filasProducto.size());
+            for (Producto fila : filasProducto.values()) {
+                Producto producto = copiar(fila);
+                List<Categoria> suyas = new ArrayList<>();
+                for (Integer idCategoria : enlaces.getOrDefault(fila.getIdProducto(), Set.of())) {
+                    Categoria categoria = filasCategoria.get(idCategoria);
+                    if (categoria != null) {
+                        suyas.add(categoria);
+                    }
+                }
+                suyas.sort(Comparator.comparing(Categoria::getNombre, collator));
+                producto.setCategorias(Collections.unmodifiableList(suyas));
+                productos.put(producto.getIdProducto(), producto);
+                if (producto.getCodigo() != null && !producto.getCodigo().isBlank()) {
+                    porCodigo.put(producto.getCodigo().trim(), producto);
+                }
+                ordenados.add(producto);
+            }
+            ordenados.sort(Comparator.comparing(Producto::getNombre, collator)
+                    .thenComparing(Producto::getIdProducto));
+            this.productos = productos;
+            this.porCodigo = porCodigo;
+            this.productosOrdenados = Collections.unmodifiableList(ordenados);
+
+            Map<Integer, List<Producto>> porCategoria = new HashMap<>();
+            for (Producto producto : ordenados) {
+                for (Categoria categoria : producto.getCategorias()) {
+                    porCategoria.computeIfAbsent(categoria.getIdCategoria(), k -> new ArrayList<>()).add(producto);
+                }
+            }
+            porCategoria.replaceAll((id, lista) -> Collections.unmodifiableList(lista));
+            this.porCategoria = porCategoria;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.cache;
+
+/**
+ * Instantánea de los contadores de una {@link IntCache}
+ */
+public class EstadisticasCache {
+    private final int tamano;
+    private final int capacidad;
+    private final long aciertos;
+    private final long fallos;
+    private final long desalojos;
+    private final long caducadas;
+
+    EstadisticasCache(int tamano, int capacidad, long aciertos, long fallos, long desalojos, long caducadas) {
+        this.tamano = tamano;
+        this.capacidad = capacidad;
+        this.aciertos = aciertos;
+        this.fallos = fallos;
+        this.desalojos = desalojos;
+        this.caducadas = caducadas;
+    }
+
+    public int getTamano() {
+        return tamano;
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    public long getAciertos() {
+        return aciertos;
+    }
+
+    /**
+     * Consultas sin valor vigente, incluidas las de entradas caducadas
+     */
+    public long getFallos() {
+        return fallos;
+    }
+
+    /**
+     * Entradas quitadas para hacer lugar a otras
+     */
+    public long getDesalojos() {
+        return desalojos;
+    }
+
+    public long getCaducadas() {
+        return caducadas;
+    }
+
+    public double getTasaAciertos() {
+        long consultas = aciertos + fallos;
+        return consultas == 0 ? 0 : (double) aciertos / consultas;
+    }
+
+    @Override
+    public String toString() {
+        return "EstadisticasCache{" +
+                "tamano=" + tamano +
+                ", capacidad=" + capacidad +
+                ", aciertos=" + aciertos +
+                ", fallos=" + fallos +
+                ", desalojos=" + desalojos +
+                ", caducadas=" + caducadas +
+                String.format(", tasaAciertos=%.3f", getTasaAciertos()) +
+                '}';
+    }
+}
@@ -0,0 +1,79 @@
+package org.cache;
+
+/**
+ * Instantánea del estado de la sincronización de cachés con el registro de cambios
+ */
+public class EstadisticasSincronizacion {
+    private final long version;
+    private final long consultas;
+    private final long cambiosAplicados;
+    private final long errores;
+    private final long antiguedadMs;
+    private final long retrasoUltimoMs;
+    private final long retrasoMaximoMs;
+
+    EstadisticasSincronizacion(long version, long consultas, long cambiosAplicados, long errores,
+                               long antiguedadMs, long retrasoUltimoMs, long retrasoMaximoMs) {
+        this.version = version;
+        this.consultas = consultas;
+        this.cambiosAplicados = cambiosAplicados;
+        this.errores = errores;
+        this.antiguedadMs = antiguedadMs;
+        this.retrasoUltimoMs = retrasoUltimoMs;
+        this.retrasoMaximoMs = retrasoMaximoMs;
+    }
+
+    /**
+     * Última versión del registro de cambios leída
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public long getConsultas() {
+        return consultas;
+    }
+
+    public long getCambiosAplicados() {
+        return cambiosAplicados;
+    }
+
+    /**
+     * Consultas al registro que fallaron
+     */
+    public long getErrores() {
+        return errores;
+    }
+
+    /**
+     * Tiempo desde la última consulta exitosa, en milisegundos; -1 si nunca se ha consultado.
+     * Las cachés pueden ignorar cambios hechos en este lapso más el intervalo de consulta.
+     */
+    public long getAntiguedadMs() {
+        return antiguedadMs;
+    }
+
+    /**
+     * Tiempo entre la escritura en otra terminal y su aplicación aquí, para el último cambio aplicado
+     */
+    public long getRetrasoUltimoMs() {
+        return retrasoUltimoMs;
+    }
+
+    public long getRetrasoMaximoMs() {
+        return retrasoMaximoMs;
+    }
+
+    @Override
+    public String toString() {
+        return "EstadisticasSincronizacion{" +
+                "version=" + version +
+                ", consultas=" + consultas +
+                ", cambiosAplicados=" + cambiosAplicados +
+                ", errores=" + errores +
+                ", antiguedadMs=" + antiguedadMs +
+                ", retrasoUltimoMs=" + retrasoUltimoMs +
+                ", retrasoMaximoMs=" + retrasoMaximoMs +
+                '}';
+    }
+}
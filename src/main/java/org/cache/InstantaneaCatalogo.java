@@ -0,0 +1,179 @@
+package org.cache;
+
+import org.models.Categoria;
+import org.models.Producto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+/**
+ * Copia binaria del catálogo en disco para arrancar el punto de venta sin esperar a la base de datos.
+ *
+ * Formato: [int MAGICO][int FORMATO][long versión][categorías][productos con su código y sus IDs de categoría]
+ * [int CRC32C]. Una instantánea de otro formato se ignora y el catálogo se lee de la base de datos.
+ * Se escribe en un archivo temporal y se reemplaza de forma atómica, así una falla a medio camino
+ * deja la copia anterior intacta.
+ */
+final class InstantaneaCatalogo {
+    private static final int MAGICO = 0x43544C47;
+    private static final int FORMATO = 2;
+
+    final long version;
+    final Map<Integer, Producto> productos;
+    final Map<Integer, Set<Integer>> enlaces;
+    final Map<Integer, Categoria> categorias;
+
+    InstantaneaCatalogo(long version, Map<Integer, Producto> productos, Map<Integer, Set<Integer>> enlaces,
+                        Map<Integer, Categoria> categorias) {
+        this.version = version;
+        this.productos = productos;
+        this.enlaces = enlaces;
+        this.categorias = categorias;
+    }
+
+    /**
+     * Escribe la instantánea en el archivo indicado
+     */
+    void guardar(Path archivo) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        DataOutputStream salida = new DataOutputStream(bytes);
+        salida.writeInt(MAGICO);
+        salida.writeInt(FORMATO);
+        salida.writeLong(version);
+
+        salida.writeInt(categorias.size());
+        for (Categoria categoria : categorias.values()) {
+            salida.writeInt(categoria.getIdCategoria());
+            escribirTexto(salida, categoria.getNombre());
+            escribirTexto(salida, categoria.getDescripcion());
+        }
+
+        salida.writeInt(productos.size());
+        for (Producto producto : productos.values()) {
+            salida.writeInt(producto.getIdProducto());
+            escribirTexto(salida, producto.getNombre());
+            escribirTexto(salida, producto.getDescripcion());
+            escribirTexto(salida, producto.getTamano());
+            escribirTexto(salida, producto.getPrecio() != null ? producto.getPrecio().toPlainString() : null);
+            escribirTexto(salida, producto.getCodigo());
+            Set<Integer> ids = enlaces.getOrDefault(producto.getIdProducto(), Set.of());
+            salida.writeInt(ids.size());
+            for (Integer idCategoria : ids) {
+                salida.writeInt(idCategoria);
+            }
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        salida.writeInt((int) crc.getValue());
+        salida.flush();
+
+        Files.createDirectories(archivo.toAbsolutePath().getParent());
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Lee una instantánea
+     *
+     * @return La instantánea, o null si no existe o está dañada o en otro formato
+     */
+    static InstantaneaCatalogo leer(Path archivo) throws IOException {
+        if (!Files.exists(archivo)) {
+            return null;
+        }
+        byte[] contenido = Files.readAllBytes(archivo);
+        if (contenido.length < 20) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(contenido, 0, contenido.length - 4);
+        if ((int) crc.getValue() != ByteBuffer.wrap(contenido, contenido.length - 4, 4).getInt()) {
+            return null;
+        }
+
+        DataInputStream entrada = new DataInputStream(
+                new ByteArrayInputStream(Arrays.copyOf(contenido, contenido.length - 4)));
+        if (entrada.readInt() != MAGICO || entrada.readInt() != FORMATO) {
+            return null;
+        }
+        long version = entrada.readLong();
+
+        int numeroCategorias = entrada.readInt();
+        Map<Integer, Categoria> categorias = new HashMap<>();
+        for (int i = 0; i < numeroCategorias; i++) {
+            Categoria categoria = new Categoria(entrada.readInt(), leerTexto(entrada), leerTexto(entrada));
+            categorias.put(categoria.getIdCategoria(), categoria);
+        }
+
+        int numeroProductos = entrada.readInt();
+        Map<Integer, Producto> productos = new HashMap<>();
+        Map<Integer, Set<Integer>> enlaces = new HashMap<>();
+        for (int i = 0; i < numeroProductos; i++) {
+            int idProducto = entrada.readInt();
+            String nombre = leerTexto(entrada);
+            String descripcion = leerTexto(entrada);
+            String tamano = leerTexto(entrada);
+            String precio = leerTexto(entrada);
+            String codigo = leerTexto(entrada);
+            Producto producto = new Producto(nombre, descripcion, tamano, precio != null ? new BigDecimal(precio) : null);
+            producto.setIdProducto(idProducto);
+            producto.setCodigo(codigo);
+            productos.put(idProducto, producto);
+
+            int numeroEnlaces = entrada.readInt();
+            Set<Integer> ids = new LinkedHashSet<>();
+            for (int j = 0; j < numeroEnlaces; j++) {
+                ids.add(entrada.readInt());
+            }
+            enlaces.put(idProducto, ids);
+        }
+        return new InstantaneaCatalogo(version, productos, enlaces, categorias);
+    }
+
+    // Longitud -1 para null; writeUTF no admite textos de más de 64 KB
+    private static void escribirTexto(DataOutputStream salida, String texto) throws IOException {
+        if (texto == null) {
+            salida.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        salida.writeInt(bytes.length);
+        salida.write(bytes);
+    }
+
+    private static String leerTexto(DataInputStream entrada) throws IOException {
+        int longitud = entrada.readInt();
+        if (longitud < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[longitud];
+        entrada.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,202 @@
+package org.cache;
+
+import java.util.Arrays;
+
+/**
+ * Caché acotada de entidades por ID entero. Las claves se guardan como int en una tabla de
+ * direccionamiento abierto, sin crear objetos Integer por consulta.
+ *
+ * Al llenarse desaloja con el algoritmo del reloj (una segunda oportunidad para las entradas
+ * consultadas desde la última vuelta) y cada entrada caduca tras el tiempo de vida configurado.
+ * Devuelve siempre la misma instancia para un ID, por lo que los valores no deben modificarse.
+ */
+public class IntCache<V> {
+    private final int capacidad;
+    private final long vidaNanos;
+    private final int mascara;
+
+    private final int[] claves;
+    private final Object[] valores;
+    private final long[] caducidades;
+    private final boolean[] usadas;
+
+    private int tamano;
+    private int manecilla;
+    private long generacion;
+
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+    private long caducadas;
+
+    /**
+     * @param capacidad Máximo de entradas
+     * @param vidaMs    Tiempo de vida de cada entrada en milisegundos; 0 o menos para no caducar
+     */
+    public IntCache(int capacidad, long vidaMs) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacidad);
+        }
+        this.capacidad = capacidad;
+        this.vidaNanos = vidaMs > 0 ? vidaMs * 1_000_000L : 0;
+
+        // La tabla se mantiene a lo más a la mitad para que las búsquedas sean cortas
+        int tamanoTabla = Integer.highestOneBit(capacidad * 2 - 1) << 1;
+        this.mascara = tamanoTabla - 1;
+        this.claves = new int[tamanoTabla];
+        this.valores = new Object[tamanoTabla];
+        this.caducidades = new long[tamanoTabla];
+        this.usadas = new boolean[tamanoTabla];
+    }
+
+    /**
+     * Obtiene el valor del ID
+     *
+     * @return El valor, o null si no está o ya caducó
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V get(int id) {
+        int i = buscar(id);
+        if (i < 0) {
+            fallos++;
+            return null;
+        }
+        if (vidaNanos > 0 && System.nanoTime() - caducidades[i] > 0) {
+            quitar(i);
+            caducadas++;
+            fallos++;
+            return null;
+        }
+        usadas[i] = true;
+        aciertos++;
+        return (V) valores[i];
+    }
+
+    /**
+     * Número que cambia con cada invalidación. Quien lee de la base de datos lo toma antes de consultar
+     * y lo pasa a {@link #put(int, Object, long)}, así una lectura que se cruzó con una escritura no
+     * vuelve a guardar datos viejos.
+     */
+    public synchronized long getGeneracion() {
+        return generacion;
+    }
+
+    /**
+     * Guarda el valor solo si no hubo invalidaciones desde que se tomó la generación
+     */
+    public synchronized void put(int id, V valor, long generacionLeida) {
+        if (generacionLeida == generacion) {
+            put(id, valor);
+        }
+    }
+
+    public synchronized void put(int id, V valor) {
+        if (valor == null) {
+            throw new IllegalArgumentException("La caché no admite valores nulos");
+        }
+        int i = buscar(id);
+        if (i < 0) {
+            if (tamano >= capacidad) {
+                desalojar();
+            }
+            i = indice(id);
+            while (valores[i] != null) {
+                i = (i + 1) & mascara;
+            }
+            claves[i] = id;
+            tamano++;
+        }
+        valores[i] = valor;
+        caducidades[i] = System.nanoTime() + vidaNanos;
+        usadas[i] = false;
+    }
+
+    public synchronized void invalidar(int id) {
+        generacion++;
+        int i = buscar(id);
+        if (i >= 0) {
+            quitar(i);
+        }
+    }
+
+    public synchronized void invalidarTodo() {
+        generacion++;
+        Arrays.fill(valores, null);
+        Arrays.fill(usadas, false);
+        tamano = 0;
+    }
+
+    public synchronized int size() {
+        return tamano;
+    }
+
+    public synchronized EstadisticasCache getEstadisticas() {
+        return new EstadisticasCache(tamano, capacidad, aciertos, fallos, desalojos, caducadas);
+    }
+
+    // Posición ideal del ID en la tabla; visible en el paquete para las pruebas
+    int indice(int id) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mascara;
+    }
+
+    private int buscar(int id) {
+        int i = indice(id);
+        while (valores[i] != null) {
+            if (claves[i] == id) {
+                return i;
+            }
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+
+    /**
+     * Avanza la manecilla hasta una entrada no consultada desde la última vuelta y la desaloja
+     */
+    private void desalojar() {
+        while (true) {
+            int i = manecilla;
+            manecilla = (manecilla + 1) & mascara;
+            if (valores[i] == null) {
+                continue;
+            }
+            if (usadas[i]) {
+                usadas[i] = false;
+                continue;
+            }
+            quitar(i);
+            desalojos++;
+            return;
+        }
+    }
+
+    /**
+     * Quita la entrada y recorre hacia atrás las siguientes del mismo grupo para no dejar huecos en la búsqueda
+     */
+    private void quitar(int i) {
+        valores[i] = null;
+        usadas[i] = false;
+        tamano--;
+
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (valores[j] == null) {
+                return;
+            }
+            int ideal = indice(claves[j]);
+            // La entrada en j se queda si su posición ideal está entre el hueco (exclusivo) y j (inclusivo)
+            boolean seQueda = i <= j ? (i < ideal && ideal <= j) : (i < ideal || ideal <= j);
+            if (!seQueda) {
+                claves[i] = claves[j];
+                valores[i] = valores[j];
+                caducidades[i] = caducidades[j];
+                usadas[i] = usadas[j];
+                valores[j] = null;
+                usadas[j] = false;
+                i = j;
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.cache;
+
+import org.dao.CambioCatalogoDao;
+import org.dao.CategoriaDao;
+import org.dao.ProductoDao;
+import org.database.DatabaseConnection;
+import org.models.CambioCatalogo;
+import org.models.Categoria;
+import org.models.Producto;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Mantiene las cachés de esta terminal al día con las escrituras de las demás.
+ * Consulta periódicamente el registro de cambios, vuelve a leer solo las filas cambiadas
+ * y las aplica al catálogo en memoria.
+ *
+ * El intervalo se configura con -Dcobra.catalogo.intervaloMs (5000 por omisión).
+ */
+public class SincronizadorCatalogo {
+    private static final long INTERVALO_MS = Long.getLong("cobra.catalogo.intervaloMs", 5000L);
+    private static final int TAMANO_LOTE = 500;
+    private static SincronizadorCatalogo instance;
+
+    private final DatabaseConnection dbConnection;
+    private final CambioCatalogoDao cambioCatalogoDao;
+    private final ProductoDao productoDao;
+    private final CategoriaDao categoriaDao;
+    private final CatalogoCache catalogo;
+    private final List<Consumer<Set<Integer>>> oyentesUsuarios;
+
+    private ScheduledExecutorService planificador;
+
+    // Protegidos por this
+    private long ultimaVersion = -1;
+    private long consultas;
+    private long cambiosAplicados;
+    private long errores;
+    private long ultimaConsultaMs = -1;
+    private long retrasoUltimoMs;
+    private long retrasoMaximoMs;
+
+    private SincronizadorCatalogo() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.cambioCatalogoDao = new CambioCatalogoDao();
+        this.productoDao = new ProductoDao();
+        this.categoriaDao = new CategoriaDao();
+        this.catalogo = CatalogoCache.getInstance();
+        this.oyentesUsuarios = new CopyOnWriteArrayList<>();
+    }
+
+    public static synchronized SincronizadorCatalogo getInstance() {
+        if (instance == null) {
+            instance = new SincronizadorCatalogo();
+        }
+        return instance;
+    }
+
+    /**
+     * Inicia la consulta periódica en segundo plano; llamarlo de nuevo no tiene efecto
+     */
+    public synchronized void iniciar() {
+        if (planificador != null) {
+            return;
+        }
+        planificador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "cobra-te-sincronizacion-catalogo");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        // La primera consulta es inmediata para reconciliar cuanto antes un catálogo leído de la instantánea
+        planificador.scheduleWithFixedDelay(this::sincronizarEnSegundoPlano,
+                0, INTERVALO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void detener() {
+        if (planificador != null) {
+            planificador.shutdownNow();
+            planificador = null;
+        }
+    }
+
+    /**
+     * Registra una acción que recibe los IDs de usuarios cambiados en otras terminales
+     */
+    public void agregarOyenteUsuarios(Consumer<Set<Integer>> oyente) {
+        oyentesUsuarios.add(oyente);
+    }
+
+    /**
+     * Lee y aplica todos los cambios pendientes del registro
+     */
+    public synchronized void sincronizar() throws SQLException {
+        if (catalogo.requiereReconciliar()) {
+            catalogo.recargar();
+        }
+
+        boolean huboCambios = false;
+        try (Connection conn = dbConnection.getConnection()) {
+            if (ultimaVersion < 0) {
+                ultimaVersion = cambioCatalogoDao.findUltimaVersion(conn);
+            }
+            // Un catálogo cargado antes de la última consulta puede ir atrasado respecto a ella
+            long versionCatalogo = catalogo.getVersion();
+            long desde = versionCatalogo >= 0 ? Math.min(ultimaVersion, versionCatalogo) : ultimaVersion;
+
+            List<CambioCatalogo> cambios;
+            do {
+                cambios = cambioCatalogoDao.findDesde(conn, desde, TAMANO_LOTE);
+                if (!cambios.isEmpty()) {
+                    aplicar(conn, cambios);
+                    huboCambios = true;
+                    desde = cambios.get(cambios.size() - 1).getVersion();
+                }
+            } while (cambios.size() == TAMANO_LOTE);
+
+            ultimaVersion = Math.max(ultimaVersion, desde);
+            catalogo.sincronizadoHasta(ultimaVersion);
+            consultas++;
+            ultimaConsultaMs = System.currentTimeMillis();
+        }
+        if (huboCambios) {
+            catalogo.guardarInstantanea();
+        }
+    }
+
+    public synchronized EstadisticasSincronizacion getEstadisticas() {
+        long antiguedad = ultimaConsultaMs < 0 ? -1 : System.currentTimeMillis() - ultimaConsultaMs;
+        return new EstadisticasSincronizacion(ultimaVersion, consultas, cambiosAplicados, errores,
+                antiguedad, retrasoUltimoMs, retrasoMaximoMs);
+    }
+
+    private void sincronizarEnSegundoPlano() {
+        try {
+            sincronizar();
+        } catch (SQLException | RuntimeException e) {
+            // Una excepción cancelaría las siguientes ejecuciones programadas
+            synchronized (this) {
+                errores++;
+            }
+            System.err.println("Error al sincronizar el catálogo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Vuelve a leer las filas de un lote de cambios y las aplica a las cachés
+     */
+    private void aplicar(Connection conn, List<CambioCatalogo> cambios) throws SQLException {
+        Set<Integer> idsProducto = new HashSet<>();
+        Set<Integer> idsCategoria = new HashSet<>();
+        Set<Integer> idsUsuario = new HashSet<>();
+        for (CambioCatalogo cambio : cambios) {
+            switch (cambio.getEntidad()) {
+                case CambioCatalogoDao.PRODUCTO -> idsProducto.add(cambio.getIdEntidad());
+                case CambioCatalogoDao.CATEGORIA -> idsCategoria.add(cambio.getIdEntidad());
+                case CambioCatalogoDao.USUARIO -> idsUsuario.add(cambio.getIdEntidad());
+                default -> {
+                }
+            }
+        }
+
+        // Las filas cambiadas se vuelven a leer de la base de datos, no de las cachés por ID
+        for (Integer id : idsProducto) {
+            CachesEntidades.productos().invalidar(id);
+        }
+        if (!idsCategoria.isEmpty()) {
+            CachesEntidades.productos().invalidarTodo();
+        }
+        for (Integer id : idsUsuario) {
+            CachesEntidades.usuarios().invalidar(id);
+        }
+
+        Map<Integer, Producto> productos = idsProducto.isEmpty()
+                ? Map.of() : productoDao.findByIds(conn, idsProducto, true);
+        Map<Integer, Categoria> categorias = idsCategoria.isEmpty()
+                ? Map.of() : categoriaDao.findByIds(conn, idsCategoria);
+
+        // Lo que ya no se encuentra fue eliminado
+        idsProducto.removeAll(productos.keySet());
+        idsCategoria.removeAll(categorias.keySet());
+
+        long version = cambios.get(cambios.size() - 1).getVersion();
+        catalogo.aplicarCambios(productos.values(), idsProducto, categorias.values(), idsCategoria, version);
+        if (!idsUsuario.isEmpty()) {
+            for (Consumer<Set<Integer>> oyente : oyentesUsuarios) {
+                oyente.accept(idsUsuario);
+            }
+        }
+
+        // El cambio más reciente del lote es el que menos ha esperado; el primero, el que más
+        cambiosAplicados += cambios.size();
+        retrasoUltimoMs = cambios.get(cambios.size() - 1).getAntiguedadMs();
+        retrasoMaximoMs = Math.max(retrasoMaximoMs, cambios.get(0).getAntiguedadMs());
+    }
+}
@@ -0,0 +1,285 @@
+package org.components;
+
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.scene.layout.HBox;
+import org.models.Producto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Cuadrícula de botones de producto para el punto de venta que solo crea los botones visibles.
+ *
+ * Es una lista virtualizada donde cada fila muestra varios productos: al desplazarse, las filas que
+ * salen de la vista se reutilizan para las que entran y solo cambian el texto de sus botones, así que
+ * el número de nodos no depende del tamaño del catálogo.
+ *
+ * Cambiar los productos (filtro o búsqueda) aplica la diferencia con lo que ya se muestra: las filas
+ * con los mismos productos no se tocan, y en las que cambian cada producto conserva su botón aunque
+ * se mueva de lugar; solo los productos nuevos toman un botón que quedó libre. Los estilos están en
+ * pos.css (clases cuadricula-productos, fila-productos y mosaico-producto).
+ */
+public final class CuadriculaProductos extends ListView<List<Producto>> {
+    private static final double ANCHO_BOTON = 180;
+    private static final double ALTO_BOTON = 100;
+    private static final double SEPARACION = 10;
+    // Reserva para el borde y la barra de desplazamiento al calcular cuántas columnas caben
+    private static final double MARGEN = 30;
+
+    private List<Producto> productos = List.of();
+    // Botones que ninguna fila usa, por id del último producto que mostraron, del más antiguo al más reciente
+    private final LinkedHashMap<Integer, Button> libres = new LinkedHashMap<>();
+    // Filas con un índice de la lista; las referencias son débiles para no retener las que VirtualFlow descarte
+    private final Set<FilaProductos> celdas = Collections.newSetFromMap(new WeakHashMap<>());
+    private int columnas;
+    private Consumer<Producto> alSeleccionar = producto -> {
+    };
+
+    public CuadriculaProductos() {
+        getStyleClass().add("cuadricula-productos");
+        setFixedCellSize(ALTO_BOTON + SEPARACION);
+        setFocusTraversable(false);
+        setCellFactory(lista -> new FilaProductos());
+        widthProperty().addListener((obs, anterior, nuevo) -> {
+            if (calcularColumnas() != columnas) {
+                agrupar(false);
+            }
+        });
+    }
+
+    /**
+     * Acción al hacer clic en el botón de un producto
+     */
+    public void setAlSeleccionar(Consumer<Producto> alSeleccionar) {
+        this.alSeleccionar = alSeleccionar;
+    }
+
+    /**
+     * Muestra los productos en el orden recibido y regresa al inicio de la cuadrícula
+     */
+    public void setProductos(List<Producto> productos) {
+        setProductos(productos, true);
+    }
+
+    /**
+     * Muestra los productos en el orden recibido; con alInicio en false conserva la posición de la vista,
+     * por ejemplo al refrescar la misma búsqueda porque cambió el catálogo
+     */
+    public void setProductos(List<Producto> productos, boolean alInicio) {
+        this.productos = List.copyOf(productos);
+        agrupar(alInicio);
+    }
+
+    public List<Producto> getProductos() {
+        return productos;
+    }
+
+    private int calcularColumnas() {
+        // Antes del primer acomodo el ancho es 0; se usan las tres columnas de la vista original
+        if (getWidth() <= 0) {
+            return 3;
+        }
+        return Math.max(1, (int) ((getWidth() - MARGEN + SEPARACION) / (ANCHO_BOTON + SEPARACION)));
+    }
+
+    private void agrupar(boolean alInicio) {
+        int anteriores = columnas;
+        int primera = anteriores > 0 ? primeraFilaVisible() * anteriores : 0;
+        columnas = calcularColumnas();
+
+        List<List<Producto>> filas = new ArrayList<>((productos.size() + columnas - 1) / columnas);
+        for (int i = 0; i < productos.size(); i += columnas) {
+            filas.add(productos.subList(i, Math.min(i + columnas, productos.size())));
+        }
+        // Las filas sueltan primero los productos que van a otra fila, para que esa fila los recupere
+        // con el mismo botón al actualizarse
+        for (FilaProductos celda : celdas) {
+            celda.soltarSalientes(filas);
+        }
+
+        // Solo se reemplazan las filas cuyo contenido cambió; las demás celdas no se actualizan
+        ObservableList<List<Producto>> items = getItems();
+        int comunes = Math.min(items.size(), filas.size());
+        for (int i = 0; i < comunes; i++) {
+            if (!mismosProductos(items.get(i), filas.get(i))) {
+                items.set(i, filas.get(i));
+            }
+        }
+        if (items.size() > filas.size()) {
+            items.remove(filas.size(), items.size());
+        } else if (filas.size() > comunes) {
+            items.addAll(filas.subList(comunes, filas.size()));
+        }
+
+        // Al cambiar de ancho se conserva a la vista el primer producto que se veía; con las mismas
+        // columnas la lista ya conserva su desplazamiento
+        if (alInicio) {
+            scrollTo(0);
+        } else if (columnas != anteriores) {
+            scrollTo(primera / columnas);
+        }
+    }
+
+    private int primeraFilaVisible() {
+        if (lookup(".virtual-flow") instanceof VirtualFlow<?> flujo && flujo.getFirstVisibleCell() != null) {
+            return flujo.getFirstVisibleCell().getIndex();
+        }
+        return 0;
+    }
+
+    private static boolean mismosProductos(List<Producto> anterior, List<Producto> nueva) {
+        if (anterior.size() != nueva.size()) {
+            return false;
+        }
+        for (int i = 0; i < anterior.size(); i++) {
+            if (anterior.get(i) != nueva.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Botón para mostrar el producto: el que lo mostraba si quedó libre, el libre más antiguo o uno nuevo
+     */
+    private Button tomarMosaico(Producto producto) {
+        Button boton = libres.remove(producto.getIdProducto());
+        if (boton == null && !libres.isEmpty()) {
+            Iterator<Button> antiguo = libres.values().iterator();
+            boton = antiguo.next();
+            antiguo.remove();
+        } else if (boton == null) {
+            boton = createProductButton();
+        }
+        // El texto solo se recalcula si cambió la instancia, por ejemplo al recargar el catálogo
+        if (boton.getUserData() != producto) {
+            boton.setUserData(producto);
+            boton.setText(texto(producto));
+        }
+        return boton;
+    }
+
+    private void soltarMosaico(Button boton) {
+        libres.put(((Producto) boton.getUserData()).getIdProducto(), boton);
+    }
+
+    private Button createProductButton() {
+        Button button = new Button();
+        button.getStyleClass().add("mosaico-producto");
+        button.setPrefSize(ANCHO_BOTON, ALTO_BOTON);
+        button.setMinSize(ANCHO_BOTON, ALTO_BOTON);
+
+        // El producto se lee al hacer clic porque el botón cambia de producto al reutilizarse
+        button.setOnAction(e -> alSeleccionar.accept((Producto) button.getUserData()));
+        return button;
+    }
+
+    private static String texto(Producto producto) {
+        return producto.getNombre() + "\n" +
+                (producto.getTamano() != null ? producto.getTamano() + "\n" : "") +
+                String.format("$%.2f", producto.getPrecio());
+    }
+
+    /**
+     * Fila reutilizable: acomoda los botones de sus productos moviendo solo los que cambiaron
+     */
+    private class FilaProductos extends ListCell<List<Producto>> {
+        private final HBox contenedor = new HBox(SEPARACION);
+
+        FilaProductos() {
+            getStyleClass().add("fila-productos");
+            contenedor.setPadding(new Insets(0, 0, SEPARACION, 0));
+        }
+
+        @Override
+        protected void updateItem(List<Producto> fila, boolean empty) {
+            super.updateItem(fila, empty);
+            acomodar(empty ? null : fila);
+        }
+
+        @Override
+        public void updateIndex(int i) {
+            super.updateIndex(i);
+            if (i >= 0 && !deMedicion()) {
+                celdas.add(this);
+            } else {
+                celdas.remove(this);
+            }
+            // Al cambiar los productos la fila pudo soltar botones mientras estaba oculta; si al mostrarse
+            // de nuevo su contenido es el mismo, updateItem no se llama y hay que reponerlos aquí
+            acomodar(isEmpty() ? null : getItem());
+        }
+
+        /**
+         * Suelta los botones de los productos que ya no estarán en esta fila con los nuevos productos
+         */
+        void soltarSalientes(List<List<Producto>> filas) {
+            if (!isEmpty() && getIndex() >= 0) {
+                soltarAjenos(getIndex() < filas.size() ? filas.get(getIndex()) : List.of());
+            }
+        }
+
+        private void acomodar(List<Producto> fila) {
+            ObservableList<Node> hijos = contenedor.getChildren();
+            if (fila == null || deMedicion()) {
+                for (Node hijo : hijos) {
+                    soltarMosaico((Button) hijo);
+                }
+                hijos.clear();
+                setGraphic(null);
+                return;
+            }
+
+            soltarAjenos(fila);
+            // Insertar o mover solo los botones que no están en su lugar
+            for (int i = 0; i < fila.size(); i++) {
+                Producto producto = fila.get(i);
+                int actual = i;
+                while (actual < hijos.size() && hijos.get(actual).getUserData() != producto) {
+                    actual++;
+                }
+                if (actual == hijos.size()) {
+                    hijos.add(i, tomarMosaico(producto));
+                } else if (actual != i) {
+                    hijos.add(i, hijos.remove(actual));
+                }
+            }
+            while (hijos.size() > fila.size()) {
+                soltarMosaico((Button) hijos.remove(hijos.size() - 1));
+            }
+            if (getGraphic() != contenedor) {
+                setGraphic(contenedor);
+            }
+        }
+
+        /**
+         * VirtualFlow mide con una celda auxiliar dentro de un grupo oculto; esa celda no toma botones
+         */
+        private boolean deMedicion() {
+            return getParent() != null && !getParent().isVisible();
+        }
+
+        private void soltarAjenos(List<Producto> fila) {
+            ObservableList<Node> hijos = contenedor.getChildren();
+            for (int i = hijos.size() - 1; i >= 0; i--) {
+                Button boton = (Button) hijos.get(i);
+                if (!fila.contains(boton.getUserData())) {
+                    hijos.remove(i);
+                    soltarMosaico(boton);
+                }
+            }
+        }
+    }
+}
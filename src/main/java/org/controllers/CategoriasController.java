@@ -1,5 +1,6 @@
 package org.controllers;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -8,9 +9,11 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
 import org.dao.CategoriaDao;
 import org.models.Categoria;
+import org.search.BusquedaDiferida;
 import org.utils.SessionManager;
 
 import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * Controlador para la gestión de categorías
@@ -53,12 +56,15 @@ public class CategoriasController {
 
     private CategoriaDao categoriaDao;
     private ObservableList<Categoria> listaCategorias;
+    private BusquedaDiferida<List<Categoria>> busquedaCategorias;
     private Categoria categoriaEnEdicion;
     private boolean modoEdicion = false;
 
     public void initialize() {
         categoriaDao = new CategoriaDao();
         listaCategorias = FXCollections.observableArrayList();
+        busquedaCategorias = new BusquedaDiferida<>("categorias", Platform::runLater, listaCategorias::setAll,
+                e -> showAlert("Error", "No se pudieron cargar las categorías: " + e.getMessage()));
 
         setupTableView();
         cargarCategorias();
@@ -95,24 +101,20 @@ public class CategoriasController {
     }
 
     private void cargarCategorias() {
-        try {
-            List<Categoria> categorias;
-            String textoBusqueda = txtBuscar.getText().trim();
-
-            if (textoBusqueda.isEmpty()) {
-                categorias = categoriaDao.findAll();
-            } else {
-                categorias = categoriaDao.findByNombre(textoBusqueda);
-            }
+        busquedaCategorias.solicitarYa(consultaCategorias());
+    }
 
-            listaCategorias.setAll(categorias);
-        } catch (Exception e) {
-            showAlert("Error", "No se pudieron cargar las categorías: " + e.getMessage());
-        }
+    /**
+     * Toma el texto de búsqueda actual; la consulta corre fuera del hilo de la interfaz
+     */
+    private Callable<List<Categoria>> consultaCategorias() {
+        String textoBusqueda = txtBuscar.getText().trim();
+        return () -> textoBusqueda.isEmpty() ? categoriaDao.findAll() : categoriaDao.buscarTexto(textoBusqueda);
     }
 
     private void setupEventHandlers() {
-        txtBuscar.textProperty().addListener((obs, oldText, newText) -> cargarCategorias());
+        txtBuscar.textProperty().addListener(
+                (obs, oldText, newText) -> busquedaCategorias.solicitar(consultaCategorias()));
 
         tableCategorias.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             btnEditar.setDisable(newSelection == null || !SessionManager.getInstance().isAdmin());
@@ -54,8 +54,8 @@ public class LoginController {
         btnLogin.setDisable(true);
         lblError.setVisible(false);
 
-        // Simular proceso de autenticación (en un hilo separado para no bloquear la UI)
-        new Thread(() -> {
+        // Autenticar en un hilo virtual; cada hilo obtiene su propia conexión del pool
+        Thread.ofVirtual().name("login-autenticacion").start(() -> {
             try {
                 Usuario usuario = usuarioDao.authenticate(email, password);
 
@@ -84,7 +84,7 @@ public class LoginController {
                     showError(ErrorMessages.getDatabaseConnectionError(e.getMessage()));
                 });
             }
-        }).start();
+        });
     }
 
     @FXML
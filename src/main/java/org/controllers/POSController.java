@@ -1,29 +1,38 @@
 package org.controllers;
 
+import javafx.application.Platform;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.layout.GridPane;
-import javafx.scene.layout.VBox;
-import org.dao.CategoriaDao;
-import org.dao.ProductoDao;
-import org.dao.VentaDao;
-import org.dao.VentaProductoDao;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.paint.Color;
+import org.cache.CatalogoCache;
+import org.cache.SincronizadorCatalogo;
+import org.components.CuadriculaProductos;
 import org.models.Categoria;
 import org.models.Producto;
 import org.models.Venta;
 import org.models.VentaProducto;
+import org.search.BusquedaDiferida;
+import org.services.ColaVentas;
+import org.services.VentaPendiente;
+import org.utils.DetectorEscaner;
 import org.utils.SessionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 
 /**
  * Controlador para el punto de venta (POS)
@@ -35,7 +44,7 @@ public class POSController {
     @FXML
     private TextField txtBuscarProducto;
     @FXML
-    private GridPane gridProductos;
+    private CuadriculaProductos gridProductos;
     @FXML
     private TableView<ItemVenta> tableCarrito;
     @FXML
@@ -55,15 +64,23 @@ public class POSController {
     @FXML
     private Button btnProcesarVenta;
     @FXML
-    private VBox panelProductos;
-
-    private ProductoDao productoDao;
-    private CategoriaDao categoriaDao;
-    private VentaDao ventaDao;
-    private VentaProductoDao ventaProductoDao;
+    private Label lblColaVentas;
+
+    private CatalogoCache catalogo;
+    private BusquedaDiferida<ProductosEncontrados> busquedaProductos;
+    // Búsqueda que se muestra en la cuadrícula
+    private ProductosEncontrados productosMostrados;
+    private final DetectorEscaner detectorEscaner = new DetectorEscaner();
+    private ColaVentas colaVentas;
     private ObservableList<ItemVenta> carrito;
     private BigDecimal totalVenta;
 
+    /**
+     * Resultado de buscar productos junto con la búsqueda que lo produjo
+     */
+    private record ProductosEncontrados(String texto, int idCategoria, List<Producto> productos) {
+    }
+
     /**
      * Clase interna para representar items en el carrito
      */
@@ -128,17 +145,143 @@ public class POSController {
     }
 
     public void initialize() {
-        productoDao = new ProductoDao();
-        categoriaDao = new CategoriaDao();
-        ventaDao = new VentaDao();
-        ventaProductoDao = new VentaProductoDao();
+        catalogo = CatalogoCache.getInstance();
+        // Mostrar de inmediato la instantánea local; el sincronizador la reconcilia en segundo plano
+        catalogo.cargarInstantanea();
+        // Trae los cambios de precios y productos hechos desde otras terminales
+        SincronizadorCatalogo.getInstance().iniciar();
+        colaVentas = ColaVentas.getInstance();
         carrito = FXCollections.observableArrayList();
         totalVenta = BigDecimal.ZERO;
+        busquedaProductos = new BusquedaDiferida<>("productos", Platform::runLater, this::mostrarProductosEnGrid,
+                e -> showAlert("Error", "No se pudieron cargar los productos: " + e.getMessage()));
 
         setupTableView();
+        gridProductos.setAlSeleccionar(this::agregarAlCarrito);
         loadCategorias();
         loadProductos();
         setupEventHandlers();
+        setupColaVentas();
+        setupCatalogo();
+        setupEscaner();
+    }
+
+    /**
+     * Vuelve a mostrar el catálogo cuando cambia en segundo plano
+     */
+    private void setupCatalogo() {
+        Runnable observador = () -> Platform.runLater(this::refrescarCatalogo);
+        catalogo.agregarObservador(observador);
+        gridProductos.sceneProperty().addListener((obs, anterior, nueva) -> {
+            if (anterior != null && nueva == null) {
+                catalogo.quitarObservador(observador);
+                busquedaProductos.cancelar();
+            }
+        });
+    }
+
+    /**
+     * Atiende el lector de códigos de barras en toda la pantalla: una ráfaga de teclas terminada en Enter
+     * agrega el producto al carrito sin buscarlo en la cuadrícula
+     */
+    private void setupEscaner() {
+        EventHandler<KeyEvent> alEscribir = e -> detectorEscaner.tecla(e.getCharacter(), System.nanoTime());
+        EventHandler<KeyEvent> alPresionar = e -> {
+            if (e.getCode() == KeyCode.ENTER && procesarCodigo()) {
+                e.consume();
+            }
+        };
+        gridProductos.sceneProperty().addListener((obs, anterior, nueva) -> {
+            if (anterior != null) {
+                anterior.removeEventFilter(KeyEvent.KEY_TYPED, alEscribir);
+                anterior.removeEventFilter(KeyEvent.KEY_PRESSED, alPresionar);
+            }
+            if (nueva != null) {
+                nueva.addEventFilter(KeyEvent.KEY_TYPED, alEscribir);
+                nueva.addEventFilter(KeyEvent.KEY_PRESSED, alPresionar);
+            }
+        });
+    }
+
+    /**
+     * Agrega al carrito el producto del código leído por el lector o tecleado en el buscador
+     *
+     * @return true si el Enter correspondía a un código
+     */
+    private boolean procesarCodigo() {
+        String escaneado = detectorEscaner.terminar(System.nanoTime());
+        String codigo = escaneado;
+        if (codigo == null && txtBuscarProducto.isFocused()) {
+            codigo = txtBuscarProducto.getText().trim();
+        }
+        if (codigo == null || codigo.isEmpty()) {
+            return false;
+        }
+
+        // Búsqueda en memoria por código, sin consultar la base de datos
+        Producto producto = catalogo.getProductoPorCodigo(codigo);
+        if (producto == null && escaneado == null) {
+            // Era texto normal del buscador
+            return false;
+        }
+
+        // El lector escribe donde esté el foco; quitar del buscador lo que haya dejado ahí
+        String texto = txtBuscarProducto.getText();
+        if (escaneado == null) {
+            txtBuscarProducto.clear();
+        } else if (texto != null && texto.endsWith(escaneado)) {
+            txtBuscarProducto.setText(texto.substring(0, texto.length() - escaneado.length()));
+        }
+
+        if (producto != null) {
+            agregarAlCarrito(producto);
+        } else {
+            showAlert("Código no encontrado", "Ningún producto tiene el código " + codigo + ".");
+        }
+        return true;
+    }
+
+    private void refrescarCatalogo() {
+        Categoria seleccionada = cmbCategorias.getSelectionModel().getSelectedItem();
+        Integer idSeleccionada = seleccionada != null ? seleccionada.getIdCategoria() : null;
+
+        loadCategorias();
+        if (idSeleccionada != null) {
+            cmbCategorias.getItems().stream()
+                    .filter(c -> idSeleccionada.equals(c.getIdCategoria()))
+                    .findFirst()
+                    .ifPresent(c -> cmbCategorias.getSelectionModel().select(c));
+        }
+        loadProductos();
+    }
+
+    /**
+     * Muestra las ventas pendientes de escribir y las rechazadas por la base de datos
+     */
+    private void setupColaVentas() {
+        Runnable observador = () -> Platform.runLater(this::updateColaVentas);
+        colaVentas.agregarObservador(observador);
+        // Dejar de observar cuando la vista se cierra
+        lblColaVentas.sceneProperty().addListener((obs, anterior, nueva) -> {
+            if (anterior != null && nueva == null) {
+                colaVentas.quitarObservador(observador);
+            }
+        });
+        updateColaVentas();
+    }
+
+    private void updateColaVentas() {
+        int pendientes = colaVentas.getPendientes();
+        int fallidas = colaVentas.getFallidas();
+        String texto = "Por sincronizar: " + pendientes;
+        if (colaVentas.isReintentando() && pendientes > 0) {
+            texto += " (sin conexión)";
+        }
+        if (fallidas > 0) {
+            texto += " | Fallidas: " + fallidas;
+        }
+        lblColaVentas.setText(texto);
+        lblColaVentas.setTextFill(Color.web(fallidas > 0 ? "#dc3545" : "#888888"));
     }
 
     private void setupTableView() {
@@ -198,7 +341,7 @@ public class POSController {
 
     private void loadCategorias() {
         try {
-            List<Categoria> categorias = categoriaDao.findAll();
+            List<Categoria> categorias = catalogo.getCategorias();
             cmbCategorias.getItems().clear();
             cmbCategorias.getItems().add(new Categoria(0, "Todas las categorías", ""));
             cmbCategorias.getItems().addAll(categorias);
@@ -209,68 +352,30 @@ public class POSController {
     }
 
     private void loadProductos() {
-        try {
-            List<Producto> productos;
-            Categoria categoriaSeleccionada = cmbCategorias.getSelectionModel().getSelectedItem();
-
-            if (categoriaSeleccionada != null && categoriaSeleccionada.getIdCategoria() != null
-                    && categoriaSeleccionada.getIdCategoria() > 0) {
-                productos = productoDao.findByCategoria(categoriaSeleccionada.getIdCategoria());
-            } else {
-                productos = productoDao.findAll();
-            }
-
-            String filtroTexto = txtBuscarProducto.getText().trim();
-            if (!filtroTexto.isEmpty()) {
-                productos = productos.stream()
-                        .filter(p -> p.getNombre().toLowerCase().contains(filtroTexto.toLowerCase()))
-                        .toList();
-            }
-
-            mostrarProductosEnGrid(productos);
-        } catch (Exception e) {
-            showAlert("Error", "No se pudieron cargar los productos: " + e.getMessage());
-        }
+        busquedaProductos.solicitarYa(consultaProductos());
     }
 
-    private void mostrarProductosEnGrid(List<Producto> productos) {
-        gridProductos.getChildren().clear();
-
-        int columnas = 3;
-        int fila = 0, columna = 0;
-
-        for (Producto producto : productos) {
-            Button btnProducto = createProductButton(producto);
-            gridProductos.add(btnProducto, columna, fila);
-
-            columna++;
-            if (columna >= columnas) {
-                columna = 0;
-                fila++;
-            }
-        }
+    /**
+     * Toma el texto y la categoría actuales; la búsqueda corre fuera del hilo de la interfaz
+     */
+    private Callable<ProductosEncontrados> consultaProductos() {
+        Categoria categoriaSeleccionada = cmbCategorias.getSelectionModel().getSelectedItem();
+        int idCategoria = categoriaSeleccionada != null && categoriaSeleccionada.getIdCategoria() != null
+                ? categoriaSeleccionada.getIdCategoria() : 0;
+        String texto = txtBuscarProducto.getText();
+
+        // El índice en memoria responde sin consultar la base de datos
+        return () -> new ProductosEncontrados(texto, idCategoria, catalogo.buscar(texto, idCategoria));
     }
 
-    private Button createProductButton(Producto producto) {
-        Button button = new Button();
-        button.setText(producto.getNombre() + "\n" +
-                (producto.getTamano() != null ? producto.getTamano() + "\n" : "") +
-                String.format("$%.2f", producto.getPrecio()));
-        button.setPrefSize(180, 100);
-        button.setStyle("-fx-background-color: #ffffff; " +
-                "-fx-border-color: #dddddd; " +
-                "-fx-border-radius: 5; " +
-                "-fx-background-radius: 5; " +
-                "-fx-font-size: 12px; " +
-                "-fx-text-alignment: center;");
-
-        button.setOnMouseEntered(e -> button.setStyle(button.getStyle() + "-fx-background-color: #f0f0f0;"));
-        button.setOnMouseExited(e -> button.setStyle(
-                button.getStyle().replace("-fx-background-color: #f0f0f0;", "-fx-background-color: #ffffff;")));
-
-        button.setOnAction(e -> agregarAlCarrito(producto));
-
-        return button;
+    private void mostrarProductosEnGrid(ProductosEncontrados encontrados) {
+        // Si solo cambió el catálogo (misma búsqueda y categoría) la cuadrícula se queda donde estaba
+        boolean mismaBusqueda = productosMostrados != null
+                && Objects.equals(productosMostrados.texto(), encontrados.texto())
+                && productosMostrados.idCategoria() == encontrados.idCategoria();
+        productosMostrados = encontrados;
+        // La cuadrícula solo reagrupa los productos; los botones visibles se reutilizan
+        gridProductos.setProductos(encontrados.productos(), !mismaBusqueda);
     }
 
     private void agregarAlCarrito(Producto producto) {
@@ -310,7 +415,8 @@ public class POSController {
 
     private void setupEventHandlers() {
         cmbCategorias.setOnAction(e -> loadProductos());
-        txtBuscarProducto.textProperty().addListener((obs, oldText, newText) -> loadProductos());
+        txtBuscarProducto.textProperty().addListener(
+                (obs, oldText, newText) -> busquedaProductos.solicitar(consultaProductos()));
 
         // Doble click para eliminar item del carrito
         tableCarrito.setRowFactory(tv -> {
@@ -352,36 +458,36 @@ public class POSController {
             Venta venta = new Venta(LocalDateTime.now(),
                     SessionManager.getInstance().getCurrentUser().getIdUsuario(),
                     totalVenta);
-            Integer idVenta = ventaDao.insert(venta);
+            List<VentaProducto> productos = new ArrayList<>(carrito.size());
+            for (ItemVenta item : carrito) {
+                productos.add(new VentaProducto(null, item.getIdProducto(), item.getCantidad()));
+            }
 
-            if (idVenta != null) {
-                // Agregar productos a la venta
-                for (ItemVenta item : carrito) {
-                    VentaProducto ventaProducto = new VentaProducto(idVenta, item.getIdProducto(), item.getCantidad());
-                    ventaProductoDao.insert(ventaProducto);
-                }
+            // La venta queda guardada localmente; se escribe en la base de datos en segundo plano
+            VentaPendiente pendiente = colaVentas.encolar(venta, productos);
 
-                // Mostrar ticket de venta
-                mostrarTicketVenta(idVenta);
+            // Mostrar ticket de venta
+            mostrarTicketVenta(pendiente);
 
-                // Limpiar carrito
-                carrito.clear();
-                updateTotal();
+            // Limpiar carrito
+            carrito.clear();
+            updateTotal();
 
-                showAlert("Venta Procesada", "La venta se procesó correctamente.\nTotal: $" +
-                        String.format("%.2f", totalVenta));
-            } else {
-                showAlert("Error", "No se pudo procesar la venta.");
-            }
+            showAlert("Venta Procesada", "La venta se procesó correctamente.\nTotal: $" +
+                    String.format("%.2f", venta.getTotal()));
         } catch (Exception e) {
             showAlert("Error", "Error al procesar la venta: " + e.getMessage());
         }
     }
 
-    private void mostrarTicketVenta(Integer idVenta) {
+    private void mostrarTicketVenta(VentaPendiente pendiente) {
+        // Si ya había IDs reservados la venta tiene su número definitivo; si no, se identifica por folio
+        Integer idVenta = pendiente.getVenta().getIdVenta();
+        String numero = idVenta != null ? "Venta #" + idVenta : "Folio " + pendiente.getFolio();
+
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Ticket de Venta");
-        alert.setHeaderText("Venta #" + idVenta + " - "
+        alert.setHeaderText(numero + " - "
                 + LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
 
         StringBuilder ticket = new StringBuilder();
@@ -1,5 +1,6 @@
 package org.controllers;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -9,10 +10,12 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 import org.dao.UsuarioDao;
 import org.models.Usuario;
+import org.search.BusquedaDiferida;
 import org.utils.SessionManager;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 
 /**
  * Controlador para la gestión de usuarios
@@ -79,12 +82,15 @@ public class UsuariosController {
 
     private UsuarioDao usuarioDao;
     private ObservableList<Usuario> listaUsuarios;
+    private BusquedaDiferida<List<Usuario>> busquedaUsuarios;
     private Usuario usuarioEnEdicion;
     private boolean modoEdicion = false;
 
     public void initialize() {
         usuarioDao = new UsuarioDao();
         listaUsuarios = FXCollections.observableArrayList();
+        busquedaUsuarios = new BusquedaDiferida<>("usuarios", Platform::runLater, listaUsuarios::setAll,
+                e -> showAlert("Error", "No se pudieron cargar los usuarios: " + e.getMessage()));
 
         setupTableView();
         setupFormulario();
@@ -135,17 +141,24 @@ public class UsuariosController {
     }
 
     private void cargarUsuarios() {
-        try {
-            String filtroRol = cmbFiltroRol.getSelectionModel().getSelectedItem();
-            List<Usuario> usuarios;
+        busquedaUsuarios.solicitarYa(consultaUsuarios());
+    }
+
+    /**
+     * Toma el rol y el texto actuales; la consulta corre fuera del hilo de la interfaz
+     */
+    private Callable<List<Usuario>> consultaUsuarios() {
+        String filtroRol = cmbFiltroRol.getSelectionModel().getSelectedItem();
+        String textoBusqueda = txtBuscar.getText().trim().toLowerCase();
 
+        return () -> {
+            List<Usuario> usuarios;
             if ("Todos".equals(filtroRol)) {
                 usuarios = usuarioDao.findAll();
             } else {
                 usuarios = usuarioDao.findByRol(filtroRol);
             }
 
-            String textoBusqueda = txtBuscar.getText().trim().toLowerCase();
             if (!textoBusqueda.isEmpty()) {
                 usuarios = usuarios.stream()
                         .filter(u -> u.getNombres().toLowerCase().contains(textoBusqueda) ||
@@ -154,15 +167,13 @@ public class UsuariosController {
                                 u.getCorreo().toLowerCase().contains(textoBusqueda))
                         .toList();
             }
-
-            listaUsuarios.setAll(usuarios);
-        } catch (Exception e) {
-            showAlert("Error", "No se pudieron cargar los usuarios: " + e.getMessage());
-        }
+            return usuarios;
+        };
     }
 
     private void setupEventHandlers() {
-        txtBuscar.textProperty().addListener((obs, oldText, newText) -> cargarUsuarios());
+        txtBuscar.textProperty().addListener(
+                (obs, oldText, newText) -> busquedaUsuarios.solicitar(consultaUsuarios()));
         cmbFiltroRol.setOnAction(e -> cargarUsuarios());
 
         tableUsuarios.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
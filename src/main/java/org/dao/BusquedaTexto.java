@@ -0,0 +1,115 @@
+package org.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arma el filtro de una búsqueda por texto sobre un índice FULLTEXT de MariaDB.
+ *
+ * Cada término de tres letras o más se busca como prefijo en modo booleano ("+caf* +ame*"), que usa el
+ * índice y da una relevancia para ordenar. InnoDB no indexa palabras más cortas que
+ * innodb_ft_min_token_size (3 por defecto), así que esos términos se filtran con LIKE sobre las filas
+ * que ya dejó el índice; si todos son cortos, la búsqueda entera es con LIKE.
+ */
+final class BusquedaTexto {
+    /**
+     * Error de MariaDB cuando la tabla no tiene el índice FULLTEXT (bases sin la migración)
+     */
+    static final int SIN_INDICE_FULLTEXT = 1191;
+
+    private static final int LONGITUD_MINIMA = 3;
+
+    private final String columnas;
+    private final List<String> indexados = new ArrayList<>();
+    private final List<String> cortos = new ArrayList<>();
+
+    /**
+     * @param columnas Columnas del índice FULLTEXT separadas por coma, en el mismo orden que el índice
+     * @param texto    Texto escrito por el usuario
+     */
+    BusquedaTexto(String columnas, String texto) {
+        this.columnas = columnas;
+        // Quitar los operadores del modo booleano para que el texto no cambie el sentido de la búsqueda
+        String limpio = texto == null ? "" : texto.replaceAll("[+\\-<>()~*\"@]", " ").trim();
+        for (String termino : limpio.split("\\s+")) {
+            if (termino.isEmpty()) {
+                continue;
+            }
+            if (termino.length() >= LONGITUD_MINIMA) {
+                indexados.add(termino);
+            } else {
+                cortos.add(termino);
+            }
+        }
+    }
+
+    boolean isVacia() {
+        return indexados.isEmpty() && cortos.isEmpty();
+    }
+
+    /**
+     * Consulta con la relevancia como columna "relevancia" (0 sin índice), de más a menos relevante
+     *
+     * @param usarIndice false para buscar solo con LIKE, como en una base sin índice FULLTEXT
+     * @param orden      Columnas para desempatar, por ejemplo "nombre"
+     */
+    String consulta(String tabla, String orden, boolean usarIndice) {
+        boolean conIndice = usarIndice && !indexados.isEmpty();
+        String match = "MATCH(" + columnas + ") AGAINST (? IN BOOLEAN MODE)";
+
+        List<String> condiciones = new ArrayList<>();
+        if (conIndice) {
+            condiciones.add(match);
+        }
+        for (int i = 0; i < terminosLike(conIndice).size(); i++) {
+            condiciones.add("(" + String.join(" LIKE ? OR ", columnas.split(",\\s*")) + " LIKE ?)");
+        }
+        return "SELECT *, " + (conIndice ? match : "0") + " AS relevancia FROM " + tabla +
+                " WHERE " + String.join(" AND ", condiciones) +
+                " ORDER BY relevancia DESC, " + orden;
+    }
+
+    /**
+     * Asigna los parámetros de consulta() con el mismo valor de usarIndice
+     */
+    void asignar(PreparedStatement stmt, boolean usarIndice) throws SQLException {
+        boolean conIndice = usarIndice && !indexados.isEmpty();
+        int indice = 1;
+        if (conIndice) {
+            String expresion = expresion();
+            stmt.setString(indice++, expresion);
+            stmt.setString(indice++, expresion);
+        }
+        int numeroColumnas = columnas.split(",\\s*").length;
+        for (String termino : terminosLike(conIndice)) {
+            for (int i = 0; i < numeroColumnas; i++) {
+                stmt.setString(indice++, "%" + termino + "%");
+            }
+        }
+    }
+
+    private String expresion() {
+        StringBuilder expresion = new StringBuilder();
+        for (String termino : indexados) {
+            if (expresion.length() > 0) {
+                expresion.append(' ');
+            }
+            expresion.append('+').append(termino).append('*');
+        }
+        return expresion.toString();
+    }
+
+    /**
+     * Con índice solo los términos cortos van con LIKE; sin índice, todos
+     */
+    private List<String> terminosLike(boolean conIndice) {
+        if (conIndice) {
+            return cortos;
+        }
+        List<String> todos = new ArrayList<>(indexados);
+        todos.addAll(cortos);
+        return todos;
+    }
+}
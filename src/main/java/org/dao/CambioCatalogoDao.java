@@ -0,0 +1,90 @@
+package org.dao;
+
+import org.models.CambioCatalogo;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * DAO del registro de cambios de catálogo y usuarios. Cada escritura de los DAO agrega una fila
+ * con una versión creciente; las demás terminales leen las versiones nuevas para actualizar sus cachés.
+ */
+public class CambioCatalogoDao {
+    public static final String PRODUCTO = "producto";
+    public static final String CATEGORIA = "categoria";
+    public static final String USUARIO = "usuario";
+
+    // Los cambios más recientes que esto pueden no estar confirmados aún en orden de versión
+    private static final int MARGEN_MS = 1000;
+
+    /**
+     * Registra filas cambiadas sobre la conexión que hizo la escritura.
+     * Un error aquí no revierte la escritura; las terminales lo corrigen la próxima vez que recargan.
+     */
+    void registrar(Connection conn, String entidad, Collection<Integer> ids) {
+        String sql = "INSERT INTO cambioCatalogo (entidad, idEntidad) VALUES (?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Integer id : ids) {
+                if (id == null) {
+                    continue;
+                }
+                stmt.setString(1, entidad);
+                stmt.setInt(2, id);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            System.err.println("Error al registrar cambio de " + entidad + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene la versión más reciente del registro
+     *
+     * @return La versión, o 0 si no hay cambios registrados
+     */
+    public long findUltimaVersion(Connection conn) throws SQLException {
+        String sql = "SELECT COALESCE(MAX(version), 0) FROM cambioCatalogo";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+                ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Obtiene los cambios posteriores a una versión en orden de versión. Omite los del último segundo,
+     * que con escrituras concurrentes podrían confirmarse después de una versión mayor ya leída.
+     */
+    public List<CambioCatalogo> findDesde(Connection conn, long version, int limite) throws SQLException {
+        List<CambioCatalogo> cambios = new ArrayList<>();
+        String sql = "SELECT version, entidad, idEntidad, " +
+                "TIMESTAMPDIFF(MICROSECOND, fecha, NOW(3)) DIV 1000 AS antiguedadMs FROM cambioCatalogo " +
+                "WHERE version > ? AND fecha <= NOW(3) - INTERVAL ? * 1000 MICROSECOND " +
+                "ORDER BY version LIMIT ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, version);
+            stmt.setInt(2, MARGEN_MS);
+            stmt.setInt(3, limite);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    cambios.add(new CambioCatalogo(
+                            rs.getLong("version"),
+                            rs.getString("entidad"),
+                            rs.getInt("idEntidad"),
+                            rs.getLong("antiguedadMs")));
+                }
+            }
+        }
+        return cambios;
+    }
+}
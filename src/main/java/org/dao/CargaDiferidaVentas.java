@@ -0,0 +1,114 @@
+package org.dao;
+
+import org.database.DatabaseConnection;
+import org.models.Usuario;
+import org.models.Venta;
+import org.models.VentaProducto;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Carga diferida por lote para un conjunto de ventas obtenido en una misma consulta.
+ * El primer acceso a la asociación de cualquier venta del lote la carga para todas
+ * con una sola consulta; las siguientes ya no tocan la base de datos.
+ */
+class CargaDiferidaVentas {
+    private final DatabaseConnection dbConnection;
+    private final UsuarioDao usuarioDao;
+    private final VentaProductoDao ventaProductoDao;
+    private final List<Venta> ventas;
+    private boolean usuariosCargados;
+    private boolean lineasCargadas;
+    private List<VentaProducto> lineas;
+    private boolean productosCargados;
+
+    CargaDiferidaVentas(DatabaseConnection dbConnection, UsuarioDao usuarioDao,
+            VentaProductoDao ventaProductoDao, List<Venta> ventas) {
+        this.dbConnection = dbConnection;
+        this.usuarioDao = usuarioDao;
+        this.ventaProductoDao = ventaProductoDao;
+        this.ventas = new ArrayList<>(ventas);
+    }
+
+    /**
+     * Registra los cargadores diferidos en cada venta del lote
+     */
+    void adjuntar() {
+        for (Venta venta : ventas) {
+            venta.setCargadorUsuario(this::cargarUsuarios);
+            venta.setCargadorProductos(this::cargarLineas);
+        }
+    }
+
+    private synchronized void cargarUsuarios() {
+        if (usuariosCargados) {
+            return;
+        }
+        usuariosCargados = true;
+
+        List<Integer> ids = new ArrayList<>(ventas.size());
+        for (Venta venta : ventas) {
+            ids.add(venta.getIdUsuario());
+        }
+
+        Map<Integer, Usuario> usuarios = Map.of();
+        try (Connection conn = dbConnection.getConnection()) {
+            usuarios = usuarioDao.findByIds(conn, ids);
+        } catch (SQLException e) {
+            System.err.println("Error al cargar usuarios de las ventas: " + e.getMessage());
+        }
+
+        for (Venta venta : ventas) {
+            venta.setUsuario(usuarios.get(venta.getIdUsuario()));
+        }
+    }
+
+    private synchronized void cargarLineas() {
+        if (lineasCargadas) {
+            return;
+        }
+        lineasCargadas = true;
+
+        List<Integer> ids = new ArrayList<>(ventas.size());
+        for (Venta venta : ventas) {
+            ids.add(venta.getIdVenta());
+        }
+
+        Map<Integer, List<VentaProducto>> porVenta = Map.of();
+        try (Connection conn = dbConnection.getConnection()) {
+            porVenta = ventaProductoDao.findByVentaIds(conn, ids);
+        } catch (SQLException e) {
+            System.err.println("Error al cargar productos de las ventas: " + e.getMessage());
+        }
+
+        lineas = new ArrayList<>();
+        for (Venta venta : ventas) {
+            List<VentaProducto> deVenta = porVenta.getOrDefault(venta.getIdVenta(), new ArrayList<>());
+            for (VentaProducto linea : deVenta) {
+                linea.setCargadorProducto(this::cargarProductos);
+            }
+            lineas.addAll(deVenta);
+            venta.setProductos(deVenta);
+        }
+    }
+
+    private synchronized void cargarProductos() {
+        if (productosCargados) {
+            return;
+        }
+        productosCargados = true;
+
+        try (Connection conn = dbConnection.getConnection()) {
+            ventaProductoDao.cargarProductos(conn, lineas, true);
+        } catch (SQLException e) {
+            System.err.println("Error al cargar productos de los detalles de venta: " + e.getMessage());
+            for (VentaProducto linea : lineas) {
+                linea.setProducto(null);
+            }
+        }
+    }
+}
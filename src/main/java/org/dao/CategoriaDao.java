@@ -1,11 +1,16 @@
 package org.dao;
 
+import org.cache.CachesEntidades;
+import org.cache.CatalogoCache;
 import org.database.DatabaseConnection;
 import org.models.Categoria;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO para operaciones CRUD de Categoria
@@ -13,20 +18,19 @@ import java.util.List;
 public class CategoriaDao implements CrudDao<Categoria> {
 
     private final DatabaseConnection dbConnection;
+    private final CambioCatalogoDao cambioCatalogoDao;
 
     public CategoriaDao() {
         this.dbConnection = DatabaseConnection.getInstance();
+        this.cambioCatalogoDao = new CambioCatalogoDao();
     }
 
     @Override
     public Integer insert(Categoria categoria) {
-        String sql = "INSERT INTO categoria (nombre, descripcion) VALUES (?, ?)";
-
         try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                PreparedStatement stmt = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
 
-            stmt.setString(1, categoria.getNombre());
-            stmt.setString(2, categoria.getDescripcion());
+            asignarParametrosInsert(stmt, categoria);
 
             int affectedRows = stmt.executeUpdate();
 
@@ -35,6 +39,8 @@ public class CategoriaDao implements CrudDao<Categoria> {
                     if (generatedKeys.next()) {
                         Integer id = generatedKeys.getInt(1);
                         categoria.setIdCategoria(id);
+                        cambioCatalogoDao.registrar(conn, CambioCatalogoDao.CATEGORIA, List.of(id));
+                        CatalogoCache.getInstance().categoriaGuardada(categoria);
                         return id;
                     }
                 }
@@ -45,6 +51,30 @@ public class CategoriaDao implements CrudDao<Categoria> {
         return null;
     }
 
+    @Override
+    public List<Integer> insertAll(Collection<Categoria> categorias) {
+        try (Connection conn = dbConnection.getConnection()) {
+            List<Integer> ids = InsercionPorLotes.insertar(conn, SQL_INSERT, categorias,
+                    CategoriaDao::asignarParametrosInsert, Categoria::setIdCategoria);
+            cambioCatalogoDao.registrar(conn, CambioCatalogoDao.CATEGORIA, ids);
+            CatalogoCache.getInstance().categoriasGuardadas(categorias);
+            return ids;
+        } catch (SQLException e) {
+            System.err.println("Error al insertar categorías: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    // Columnas del índice ft_categoria_texto
+    private static final String COLUMNAS_TEXTO = "nombre, descripcion";
+
+    private static final String SQL_INSERT = "INSERT INTO categoria (nombre, descripcion) VALUES (?, ?)";
+
+    private static void asignarParametrosInsert(PreparedStatement stmt, Categoria categoria) throws SQLException {
+        stmt.setString(1, categoria.getNombre());
+        stmt.setString(2, categoria.getDescripcion());
+    }
+
     @Override
     public Categoria findById(Integer id) {
         String sql = "SELECT * FROM categoria WHERE idCategoria = ?";
@@ -67,22 +97,62 @@ public class CategoriaDao implements CrudDao<Categoria> {
 
     @Override
     public List<Categoria> findAll() {
+        try (Connection conn = dbConnection.getConnection()) {
+            return findAll(conn);
+        } catch (SQLException e) {
+            System.err.println("Error al obtener todas las categorías: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Variante de {@link #findAll()} sobre una conexión ya abierta; propaga los errores
+     */
+    public List<Categoria> findAll(Connection conn) throws SQLException {
         List<Categoria> categorias = new ArrayList<>();
         String sql = "SELECT * FROM categoria ORDER BY nombre";
 
-        try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql);
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
                 ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
                 categorias.add(mapResultSetToCategoria(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error al obtener todas las categorías: " + e.getMessage());
         }
         return categorias;
     }
 
+    @Override
+    public Pagina<Categoria> findPage(CursorPagina despues, int tamano) {
+        int limite = Pagina.tamanoValido(tamano);
+        List<Categoria> categorias = new ArrayList<>();
+        String sql = despues == null
+                ? "SELECT * FROM categoria ORDER BY nombre, idCategoria LIMIT ?"
+                : "SELECT * FROM categoria WHERE nombre > ? OR (nombre = ? AND idCategoria > ?) " +
+                        "ORDER BY nombre, idCategoria LIMIT ?";
+
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            if (despues != null) {
+                stmt.setString(i++, (String) despues.getClave());
+                stmt.setString(i++, (String) despues.getClave());
+                stmt.setInt(i++, despues.getId());
+            }
+            stmt.setInt(i, limite + 1);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    categorias.add(mapResultSetToCategoria(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al obtener página de categorías: " + e.getMessage());
+        }
+        return Pagina.de(categorias, limite, c -> new CursorPagina(c.getNombre(), c.getIdCategoria()));
+    }
+
     @Override
     public boolean update(Categoria categoria) {
         String sql = "UPDATE categoria SET nombre = ?, descripcion = ? WHERE idCategoria = ?";
@@ -94,7 +164,14 @@ public class CategoriaDao implements CrudDao<Categoria> {
             stmt.setString(2, categoria.getDescripcion());
             stmt.setInt(3, categoria.getIdCategoria());
 
-            return stmt.executeUpdate() > 0;
+            int actualizadas = stmt.executeUpdate();
+            // Los productos en caché llevan copias de sus categorías
+            CachesEntidades.productos().invalidarTodo();
+            if (actualizadas > 0) {
+                cambioCatalogoDao.registrar(conn, CambioCatalogoDao.CATEGORIA, List.of(categoria.getIdCategoria()));
+                CatalogoCache.getInstance().categoriaGuardada(categoria);
+                return true;
+            }
         } catch (SQLException e) {
             System.err.println("Error al actualizar categoría: " + e.getMessage());
         }
@@ -109,7 +186,13 @@ public class CategoriaDao implements CrudDao<Categoria> {
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            int eliminadas = stmt.executeUpdate();
+            CachesEntidades.productos().invalidarTodo();
+            if (eliminadas > 0) {
+                cambioCatalogoDao.registrar(conn, CambioCatalogoDao.CATEGORIA, List.of(id));
+                CatalogoCache.getInstance().categoriaEliminada(id);
+                return true;
+            }
         } catch (SQLException e) {
             System.err.println("Error al eliminar categoría: " + e.getMessage());
         }
@@ -139,6 +222,45 @@ public class CategoriaDao implements CrudDao<Categoria> {
         return categorias;
     }
 
+    /**
+     * Busca categorías por nombre y descripción con el índice FULLTEXT, de más a menos relevantes. Cada
+     * término se busca como inicio de palabra; los de menos de tres letras se filtran con LIKE y, si la
+     * base aún no tiene el índice (db/migracion_fulltext.sql), toda la búsqueda se hace con LIKE.
+     */
+    public List<Categoria> buscarTexto(String texto) {
+        BusquedaTexto busqueda = new BusquedaTexto(COLUMNAS_TEXTO, texto);
+        if (busqueda.isVacia()) {
+            return findAll();
+        }
+        try (Connection conn = dbConnection.getConnection()) {
+            try {
+                return buscarTexto(conn, busqueda, true);
+            } catch (SQLException e) {
+                if (e.getErrorCode() != BusquedaTexto.SIN_INDICE_FULLTEXT) {
+                    throw e;
+                }
+                return buscarTexto(conn, busqueda, false);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al buscar categorías por texto: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    private List<Categoria> buscarTexto(Connection conn, BusquedaTexto busqueda, boolean usarIndice)
+            throws SQLException {
+        List<Categoria> categorias = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(busqueda.consulta("categoria", "nombre", usarIndice))) {
+            busqueda.asignar(stmt, usarIndice);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    categorias.add(mapResultSetToCategoria(rs));
+                }
+            }
+        }
+        return categorias;
+    }
+
     /**
      * Obtiene las categorías de un producto específico
      */
@@ -164,6 +286,76 @@ public class CategoriaDao implements CrudDao<Categoria> {
         return categorias;
     }
 
+    /**
+     * Obtiene las categorías de varios productos con consultas por lote.
+     * Cada categoría se instancia una sola vez y se comparte entre los productos.
+     */
+    public Map<Integer, List<Categoria>> findByProductoIds(Collection<Integer> idsProducto) {
+        try (Connection conn = dbConnection.getConnection()) {
+            return findByProductoIds(conn, idsProducto);
+        } catch (SQLException e) {
+            System.err.println("Error al obtener categorías de los productos: " + e.getMessage());
+        }
+        return new HashMap<>();
+    }
+
+    /**
+     * Variante de {@link #findByProductoIds(Collection)} sobre una conexión ya abierta
+     */
+    Map<Integer, List<Categoria>> findByProductoIds(Connection conn, Collection<Integer> idsProducto)
+            throws SQLException {
+        Map<Integer, List<Categoria>> porProducto = new HashMap<>();
+        Map<Integer, Categoria> compartidas = new HashMap<>();
+
+        for (List<Integer> lote : SqlUtils.lotes(idsProducto)) {
+            String sql = "SELECT pc.idProducto, c.* FROM productoCategoria pc " +
+                    "INNER JOIN categoria c ON c.idCategoria = pc.idCategoria " +
+                    "WHERE pc.idProducto IN (" + SqlUtils.marcadores(lote.size()) + ") ORDER BY c.nombre";
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < lote.size(); i++) {
+                    stmt.setInt(i + 1, lote.get(i));
+                }
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Integer idCategoria = rs.getInt("idCategoria");
+                        Categoria categoria = compartidas.get(idCategoria);
+                        if (categoria == null) {
+                            categoria = mapResultSetToCategoria(rs);
+                            compartidas.put(idCategoria, categoria);
+                        }
+                        porProducto.computeIfAbsent(rs.getInt("idProducto"), k -> new ArrayList<>()).add(categoria);
+                    }
+                }
+            }
+        }
+        return porProducto;
+    }
+
+    /**
+     * Obtiene varias categorías por ID con consultas por lote, indexadas por ID
+     */
+    public Map<Integer, Categoria> findByIds(Connection conn, Collection<Integer> ids) throws SQLException {
+        Map<Integer, Categoria> categorias = new HashMap<>();
+        for (List<Integer> lote : SqlUtils.lotes(ids)) {
+            String sql = "SELECT * FROM categoria WHERE idCategoria IN (" + SqlUtils.marcadores(lote.size()) + ")";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < lote.size(); i++) {
+                    stmt.setInt(i + 1, lote.get(i));
+                }
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Categoria categoria = mapResultSetToCategoria(rs);
+                        categorias.put(categoria.getIdCategoria(), categoria);
+                    }
+                }
+            }
+        }
+        return categorias;
+    }
+
     /**
      * Mapea un ResultSet a un objeto Categoria
      */
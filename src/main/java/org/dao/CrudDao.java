@@ -1,5 +1,6 @@
 package org.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,6 +16,16 @@ public interface CrudDao<T> {
      */
     Integer insert(T entity);
 
+    /**
+     * Inserta varias entidades en una sola transacción usando batching JDBC,
+     * con unos pocos viajes a la base de datos en lugar de uno por entidad.
+     * Si alguna falla no se inserta ninguna.
+     * 
+     * @param entities Las entidades a insertar; reciben su ID generado
+     * @return Los IDs generados en el mismo orden de la colección
+     */
+    List<Integer> insertAll(Collection<T> entities);
+
     /**
      * Busca una entidad por su ID
      * 
@@ -30,6 +41,17 @@ public interface CrudDao<T> {
      */
     List<T> findAll();
 
+    /**
+     * Obtiene una página de entidades usando paginación por clave (keyset):
+     * cada página continúa después de la última fila de la anterior, sin OFFSET,
+     * por lo que el costo por página es constante sin importar cuánto se avance.
+     * 
+     * @param despues Cursor devuelto por la página anterior, o null para la primera
+     * @param tamano  Número de entidades por página (máximo {@link Pagina#TAMANO_MAXIMO})
+     * @return La página con sus entidades y el cursor de la siguiente
+     */
+    Pagina<T> findPage(CursorPagina despues, int tamano);
+
     /**
      * Actualiza una entidad existente
      * 
@@ -0,0 +1,37 @@
+package org.dao;
+
+/**
+ * Posición de la última fila de una página: el valor de la columna de orden y el ID.
+ * La siguiente página empieza justo después de esta posición (paginación por clave).
+ */
+public class CursorPagina {
+    private final Object clave;
+    private final Integer id;
+
+    public CursorPagina(Object clave, Integer id) {
+        this.clave = clave;
+        this.id = id;
+    }
+
+    /**
+     * Valor de la columna de orden de la última fila
+     */
+    public Object getClave() {
+        return clave;
+    }
+
+    /**
+     * ID de la última fila, usado para desempatar filas con la misma clave
+     */
+    public Integer getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "CursorPagina{" +
+                "clave=" + clave +
+                ", id=" + id +
+                '}';
+    }
+}
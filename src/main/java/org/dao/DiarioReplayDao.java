@@ -0,0 +1,47 @@
+package org.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * DAO de la última secuencia del diario local de ventas escrita por cada terminal.
+ * Se actualiza en la misma transacción que las ventas, lo que hace idempotente el reenvío del diario.
+ */
+public class DiarioReplayDao {
+
+    /**
+     * Obtiene la última secuencia escrita por la terminal y bloquea la fila hasta el fin de la transacción
+     *
+     * @return La última secuencia, o 0 si la terminal nunca ha escrito
+     */
+    public long findUltimaSecuencia(Connection conn, String terminal) throws SQLException {
+        String sql = "SELECT ultimaSecuencia FROM diarioReplay WHERE terminal = ? FOR UPDATE";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, terminal);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong("ultimaSecuencia");
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Registra la última secuencia escrita por la terminal; nunca la hace retroceder
+     */
+    public void updateUltimaSecuencia(Connection conn, String terminal, long secuencia) throws SQLException {
+        String sql = "INSERT INTO diarioReplay (terminal, ultimaSecuencia) VALUES (?, ?) " +
+                "ON DUPLICATE KEY UPDATE ultimaSecuencia = GREATEST(ultimaSecuencia, VALUES(ultimaSecuencia))";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, terminal);
+            stmt.setLong(2, secuencia);
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.dao;
+
+import org.database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Asignador de IDs hi-lo: reserva bloques de IDs en la tabla generadorId y los
+ * reparte en memoria, así las entidades tienen su ID antes de insertarse y no hace
+ * falta leer las claves generadas. Cada bloque se reserva con una sola sentencia
+ * atómica en su propia conexión, por lo que varias terminales nunca reciben el mismo ID.
+ */
+public class GeneradorIds {
+    private static final int TAMANO_BLOQUE =
+            Integer.parseInt(System.getProperty("cobra.ids.bloque", "50"));
+    private static GeneradorIds ventas;
+
+    private final DatabaseConnection dbConnection;
+    private final String nombre;
+    private final String sqlValorInicial;
+    private final int tamanoBloque;
+
+    // Protegidos por this: IDs disponibles en [siguiente, limite)
+    private long siguiente;
+    private long limite;
+
+    GeneradorIds(String nombre, String tabla, String columna, int tamanoBloque) {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.nombre = nombre;
+        this.sqlValorInicial = "INSERT IGNORE INTO generadorId (nombre, siguiente) " +
+                "SELECT ?, COALESCE(MAX(" + columna + "), 0) + 1 FROM " + tabla;
+        this.tamanoBloque = tamanoBloque;
+    }
+
+    /**
+     * Generador de IDs de venta
+     */
+    public static synchronized GeneradorIds ventas() {
+        if (ventas == null) {
+            ventas = new GeneradorIds("venta", "venta", "idVenta", TAMANO_BLOQUE);
+        }
+        return ventas;
+    }
+
+    /**
+     * Obtiene el siguiente ID; reserva un bloque nuevo en la base de datos si el actual se agotó.
+     * No debe llamarse mientras el hilo tiene otra conexión del pool prestada.
+     */
+    public int siguiente() throws SQLException {
+        Integer id = siguienteDisponible();
+        while (id == null) {
+            instalar(reservarBloque());
+            id = siguienteDisponible();
+        }
+        return id;
+    }
+
+    /**
+     * Obtiene el siguiente ID solo si queda alguno en el bloque reservado, sin tocar la base de datos
+     *
+     * @return El ID, o null si hay que reservar un bloque nuevo
+     */
+    public synchronized Integer siguienteDisponible() {
+        return siguiente < limite ? (int) siguiente++ : null;
+    }
+
+    /**
+     * Reserva un bloque nuevo por adelantado si al actual le queda menos de la mitad.
+     * La consulta se hace sin bloquear a quien pide IDs mientras tanto.
+     */
+    public void precargar() throws SQLException {
+        boolean necesario;
+        synchronized (this) {
+            necesario = limite - siguiente < tamanoBloque / 2;
+        }
+        if (necesario) {
+            instalar(reservarBloque());
+        }
+    }
+
+    /**
+     * Reemplaza el bloque actual; los IDs que le quedaban se descartan (solo dejan huecos)
+     */
+    private synchronized void instalar(long nuevoLimite) {
+        siguiente = nuevoLimite - tamanoBloque;
+        limite = nuevoLimite;
+    }
+
+    /**
+     * Reserva un bloque en la base de datos
+     *
+     * @return El límite (exclusivo) del bloque reservado
+     */
+    private long reservarBloque() throws SQLException {
+        String sqlReservar = "UPDATE generadorId SET siguiente = LAST_INSERT_ID(siguiente + ?) WHERE nombre = ?";
+
+        try (Connection conn = dbConnection.getConnection()) {
+            int actualizadas;
+            try (PreparedStatement stmt = conn.prepareStatement(sqlReservar)) {
+                stmt.setInt(1, tamanoBloque);
+                stmt.setString(2, nombre);
+                actualizadas = stmt.executeUpdate();
+            }
+
+            if (actualizadas == 0) {
+                // Primera reserva: el contador empieza después del mayor ID existente
+                try (PreparedStatement stmt = conn.prepareStatement(sqlValorInicial)) {
+                    stmt.setString(1, nombre);
+                    stmt.executeUpdate();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(sqlReservar)) {
+                    stmt.setInt(1, tamanoBloque);
+                    stmt.setString(2, nombre);
+                    stmt.executeUpdate();
+                }
+            }
+
+            // LAST_INSERT_ID es por conexión: devuelve el valor que dejó la reserva anterior
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT LAST_INSERT_ID()");
+                    ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Inserción de muchas filas con batching JDBC dentro de una sola transacción.
+ * Con useBulkStmts el driver de MariaDB envía cada lote en un solo viaje al servidor.
+ */
+final class InsercionPorLotes {
+
+    /**
+     * Filas enviadas por cada executeBatch
+     */
+    static final int TAMANO_LOTE = 500;
+
+    private InsercionPorLotes() {
+    }
+
+    /**
+     * Asigna los parámetros de una fila
+     */
+    @FunctionalInterface
+    interface Fila<T> {
+        void asignar(PreparedStatement stmt, T entidad) throws SQLException;
+    }
+
+    /**
+     * Inserta las entidades y devuelve los IDs generados en el mismo orden.
+     * Si la conexión está en autocommit, la inserción es atómica: se confirma completa o se revierte.
+     * Si ya hay una transacción abierta, confirmarla o revertirla queda a cargo de quien la abrió.
+     * Si falla, las entidades que ya habían recibido ID vuelven a quedar con ID null.
+     *
+     * @param asignarId Recibe cada entidad con su ID generado
+     */
+    static <T> List<Integer> insertar(Connection conn, String sql, Collection<T> entidades, Fila<T> fila,
+            BiConsumer<T, Integer> asignarId) throws SQLException {
+        List<Integer> ids = new ArrayList<>(entidades.size());
+        List<T> conId = new ArrayList<>(entidades.size());
+        try {
+            ejecutar(conn, sql, entidades, fila, Statement.RETURN_GENERATED_KEYS, (lote, stmt) -> {
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    for (T entidad : lote) {
+                        if (!generatedKeys.next()) {
+                            throw new SQLException("El servidor no devolvió un ID por cada fila insertada");
+                        }
+                        Integer id = generatedKeys.getInt(1);
+                        asignarId.accept(entidad, id);
+                        conId.add(entidad);
+                        ids.add(id);
+                    }
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            for (T entidad : conId) {
+                asignarId.accept(entidad, null);
+            }
+            throw e;
+        }
+        return ids;
+    }
+
+    /**
+     * Inserta las entidades sin leer IDs generados (tablas con clave compuesta)
+     */
+    static <T> void insertarSinIds(Connection conn, String sql, Collection<T> entidades, Fila<T> fila)
+            throws SQLException {
+        ejecutar(conn, sql, entidades, fila, Statement.NO_GENERATED_KEYS, (lote, stmt) -> {
+        });
+    }
+
+    @FunctionalInterface
+    private interface TrasLote<T> {
+        void procesar(List<T> lote, PreparedStatement stmt) throws SQLException;
+    }
+
+    private static <T> void ejecutar(Connection conn, String sql, Collection<T> entidades, Fila<T> fila,
+            int autoGeneratedKeys, TrasLote<T> trasLote) throws SQLException {
+        if (entidades.isEmpty()) {
+            return;
+        }
+
+        boolean transaccionPropia = conn.getAutoCommit();
+        if (transaccionPropia) {
+            conn.setAutoCommit(false);
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql, autoGeneratedKeys)) {
+            List<T> lote = new ArrayList<>(Math.min(entidades.size(), TAMANO_LOTE));
+            for (T entidad : entidades) {
+                fila.asignar(stmt, entidad);
+                stmt.addBatch();
+                lote.add(entidad);
+                if (lote.size() == TAMANO_LOTE) {
+                    stmt.executeBatch();
+                    trasLote.procesar(lote, stmt);
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                stmt.executeBatch();
+                trasLote.procesar(lote, stmt);
+            }
+
+            if (transaccionPropia) {
+                conn.commit();
+            }
+        } catch (SQLException | RuntimeException e) {
+            if (transaccionPropia) {
+                conn.rollback();
+            }
+            throw e;
+        } finally {
+            if (transaccionPropia) {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
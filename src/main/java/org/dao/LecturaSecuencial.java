@@ -0,0 +1,117 @@
+package org.dao;
+
+import org.database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lectura secuencial de consultas grandes sin materializar el resultado.
+ * Usa un ResultSet de solo avance con fetch size, por lo que el driver trae
+ * las filas por bloques y la memoria usada no crece con el número de filas.
+ */
+final class LecturaSecuencial {
+
+    /**
+     * Filas que el driver trae del servidor en cada viaje
+     */
+    static final int TAMANO_FETCH = 1000;
+
+    private LecturaSecuencial() {
+    }
+
+    /**
+     * Asigna los parámetros de la consulta
+     */
+    @FunctionalInterface
+    interface Parametros {
+        void asignar(PreparedStatement stmt) throws SQLException;
+    }
+
+    /**
+     * Convierte la fila actual del ResultSet
+     */
+    @FunctionalInterface
+    interface Mapeo<T> {
+        T mapear(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Abre la consulta y devuelve un Stream perezoso sobre sus filas.
+     * La conexión queda ocupada hasta cerrar el Stream, por lo que debe usarse con try-with-resources.
+     */
+    static <T> Stream<T> abrir(DatabaseConnection dbConnection, String sql, Parametros parametros, Mapeo<T> mapeo)
+            throws SQLException {
+        Connection conn = dbConnection.getConnection();
+        PreparedStatement stmt = null;
+        ResultSet rs;
+        try {
+            // Sentencia fuera de la caché: un ResultSet en streaming no debe compartirse
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(TAMANO_FETCH);
+            parametros.asignar(stmt);
+            rs = stmt.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            cerrar(null, stmt, conn);
+            throw e;
+        }
+
+        PreparedStatement sentencia = stmt;
+        Spliterator<T> filas = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> accion) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    accion.accept(mapeo.mapear(rs));
+                    return true;
+                } catch (SQLException e) {
+                    throw new RuntimeException("Error al leer filas: " + e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(filas, false).onClose(() -> cerrar(rs, sentencia, conn));
+    }
+
+    /**
+     * Recorre todas las filas de la consulta entregándolas una por una al consumidor
+     *
+     * @return Número de filas procesadas
+     */
+    static <T> long recorrer(DatabaseConnection dbConnection, String sql, Parametros parametros, Mapeo<T> mapeo,
+            Consumer<? super T> consumidor) throws SQLException {
+        long filas = 0;
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY)) {
+
+            stmt.setFetchSize(TAMANO_FETCH);
+            parametros.asignar(stmt);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(mapeo.mapear(rs));
+                    filas++;
+                }
+            }
+        }
+        return filas;
+    }
+
+    private static void cerrar(ResultSet rs, PreparedStatement stmt, Connection conn) {
+        try (conn; stmt; rs) {
+            // Se cierran en orden inverso: ResultSet, sentencia y conexión
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar lectura secuencial: " + e.getMessage());
+        }
+    }
+}
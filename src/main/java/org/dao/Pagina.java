@@ -0,0 +1,58 @@
+package org.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados de una consulta paginada por clave
+ */
+public class Pagina<T> {
+
+    /**
+     * Tamaño máximo de página permitido
+     */
+    public static final int TAMANO_MAXIMO = 500;
+
+    private final List<T> elementos;
+    private final CursorPagina siguiente;
+
+    public Pagina(List<T> elementos, CursorPagina siguiente) {
+        this.elementos = elementos;
+        this.siguiente = siguiente;
+    }
+
+    /**
+     * Construye la página a partir de hasta tamano + 1 filas leídas.
+     * La fila adicional solo indica que existe una página siguiente.
+     */
+    static <T> Pagina<T> de(List<T> filas, int tamano, Function<T, CursorPagina> cursor) {
+        if (filas.size() <= tamano) {
+            return new Pagina<>(filas, null);
+        }
+        List<T> elementos = new ArrayList<>(filas.subList(0, tamano));
+        return new Pagina<>(elementos, cursor.apply(elementos.get(tamano - 1)));
+    }
+
+    /**
+     * Ajusta el tamaño solicitado al rango [1, TAMANO_MAXIMO]
+     */
+    static int tamanoValido(int tamano) {
+        return Math.max(1, Math.min(TAMANO_MAXIMO, tamano));
+    }
+
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Cursor para pedir la página siguiente, o null si esta es la última
+     */
+    public CursorPagina getSiguiente() {
+        return siguiente;
+    }
+
+    public boolean hasSiguiente() {
+        return siguiente != null;
+    }
+}
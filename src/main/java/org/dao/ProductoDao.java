@@ -1,13 +1,21 @@
 package org.dao;
 
+import org.cache.CachesEntidades;
+import org.cache.CatalogoCache;
+import org.cache.IntCache;
 import org.database.DatabaseConnection;
 import org.models.Producto;
 import org.models.Categoria;
+import org.models.ProductoResumen;
 
 import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO para operaciones CRUD de Producto
@@ -16,23 +24,22 @@ public class ProductoDao implements CrudDao<Producto> {
 
     private final DatabaseConnection dbConnection;
     private final CategoriaDao categoriaDao;
+    private final CambioCatalogoDao cambioCatalogoDao;
+    private final IntCache<Producto> cache;
 
     public ProductoDao() {
         this.dbConnection = DatabaseConnection.getInstance();
         this.categoriaDao = new CategoriaDao();
+        this.cambioCatalogoDao = new CambioCatalogoDao();
+        this.cache = CachesEntidades.productos();
     }
 
     @Override
     public Integer insert(Producto producto) {
-        String sql = "INSERT INTO producto (nombre, descripcion, tamano, precio) VALUES (?, ?, ?, ?)";
-
         try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                PreparedStatement stmt = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
 
-            stmt.setString(1, producto.getNombre());
-            stmt.setString(2, producto.getDescripcion());
-            stmt.setString(3, producto.getTamano());
-            stmt.setBigDecimal(4, producto.getPrecio());
+            asignarParametrosInsert(stmt, producto);
 
             int affectedRows = stmt.executeUpdate();
 
@@ -41,6 +48,8 @@ public class ProductoDao implements CrudDao<Producto> {
                     if (generatedKeys.next()) {
                         Integer id = generatedKeys.getInt(1);
                         producto.setIdProducto(id);
+                        cambioCatalogoDao.registrar(conn, CambioCatalogoDao.PRODUCTO, List.of(id));
+                        CatalogoCache.getInstance().productoGuardado(producto);
                         return id;
                     }
                 }
@@ -51,23 +60,96 @@ public class ProductoDao implements CrudDao<Producto> {
         return null;
     }
 
+    /**
+     * Inserta varios productos en una transacción. No asigna categorías.
+     */
+    @Override
+    public List<Integer> insertAll(Collection<Producto> productos) {
+        try (Connection conn = dbConnection.getConnection()) {
+            List<Integer> ids = InsercionPorLotes.insertar(conn, SQL_INSERT, productos,
+                    ProductoDao::asignarParametrosInsert, Producto::setIdProducto);
+            cambioCatalogoDao.registrar(conn, CambioCatalogoDao.PRODUCTO, ids);
+            CatalogoCache.getInstance().productosGuardados(productos);
+            return ids;
+        } catch (SQLException e) {
+            System.err.println("Error al insertar productos: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    // Columnas del índice ft_producto_texto
+    static final String COLUMNAS_TEXTO = "nombre, descripcion";
+
+    private static final String SQL_INSERT =
+            "INSERT INTO producto (nombre, descripcion, tamano, precio, codigo) VALUES (?, ?, ?, ?, ?)";
+
+    private static void asignarParametrosInsert(PreparedStatement stmt, Producto producto) throws SQLException {
+        stmt.setString(1, producto.getNombre());
+        stmt.setString(2, producto.getDescripcion());
+        stmt.setString(3, producto.getTamano());
+        stmt.setBigDecimal(4, producto.getPrecio());
+        stmt.setString(5, producto.getCodigo());
+    }
+
+    /**
+     * Busca un producto por su código de barras o SKU, con sus categorías. El punto de venta resuelve
+     * los códigos escaneados con {@link CatalogoCache#getProductoPorCodigo(String)} sin consultar la base.
+     *
+     * @return El producto, o null si ningún producto tiene ese código
+     */
+    public Producto findByCodigo(String codigo) {
+        String sql = "SELECT * FROM producto WHERE codigo = ?";
+        try (Connection conn = dbConnection.getConnection()) {
+            Producto producto = null;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, codigo);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        producto = mapResultSetToProducto(rs);
+                    }
+                }
+            }
+            if (producto != null) {
+                cargarCategorias(conn, List.of(producto));
+            }
+            return producto;
+        } catch (SQLException e) {
+            System.err.println("Error al buscar producto por código: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Busca un producto por ID con sus categorías; la instancia devuelta puede venir de la caché y es compartida
+     */
     @Override
     public Producto findById(Integer id) {
-        String sql = "SELECT * FROM producto WHERE idProducto = ?";
+        Producto enCache = cache.get(id);
+        if (enCache != null) {
+            return enCache;
+        }
 
-        try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        String sql = "SELECT * FROM producto WHERE idProducto = ?";
+        long generacion = cache.getGeneracion();
+        try (Connection conn = dbConnection.getConnection()) {
+            Producto producto = null;
 
-            stmt.setInt(1, id);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, id);
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Producto producto = mapResultSetToProducto(rs);
-                    // Cargar las categorías del producto
-                    producto.setCategorias(categoriaDao.findByProductoId(id));
-                    return producto;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        producto = mapResultSetToProducto(rs);
+                    }
                 }
             }
+
+            if (producto != null) {
+                // Cargar las categorías del producto con la misma conexión
+                cargarCategorias(conn, List.of(producto));
+                cache.put(id, producto, generacion);
+                return producto;
+            }
         } catch (SQLException e) {
             System.err.println("Error al buscar producto por ID: " + e.getMessage());
         }
@@ -76,28 +158,69 @@ public class ProductoDao implements CrudDao<Producto> {
 
     @Override
     public List<Producto> findAll() {
+        try (Connection conn = dbConnection.getConnection()) {
+            return findAll(conn);
+        } catch (SQLException e) {
+            System.err.println("Error al obtener todos los productos: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Variante de {@link #findAll()} sobre una conexión ya abierta, con sus categorías; propaga los errores
+     */
+    public List<Producto> findAll(Connection conn) throws SQLException {
         List<Producto> productos = new ArrayList<>();
         String sql = "SELECT * FROM producto ORDER BY nombre";
 
-        try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql);
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
                 ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
-                Producto producto = mapResultSetToProducto(rs);
-                // Cargar las categorías del producto
-                producto.setCategorias(categoriaDao.findByProductoId(producto.getIdProducto()));
-                productos.add(producto);
+                productos.add(mapResultSetToProducto(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error al obtener todos los productos: " + e.getMessage());
         }
+        // Cargar las categorías de todos los productos en una consulta por lote
+        cargarCategorias(conn, productos);
         return productos;
     }
 
+    @Override
+    public Pagina<Producto> findPage(CursorPagina despues, int tamano) {
+        int limite = Pagina.tamanoValido(tamano);
+        List<Producto> productos = new ArrayList<>();
+        String sql = despues == null
+                ? "SELECT * FROM producto ORDER BY nombre, idProducto LIMIT ?"
+                : "SELECT * FROM producto WHERE nombre > ? OR (nombre = ? AND idProducto > ?) " +
+                        "ORDER BY nombre, idProducto LIMIT ?";
+
+        try (Connection conn = dbConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int i = 1;
+                if (despues != null) {
+                    stmt.setString(i++, (String) despues.getClave());
+                    stmt.setString(i++, (String) despues.getClave());
+                    stmt.setInt(i++, despues.getId());
+                }
+                stmt.setInt(i, limite + 1);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        productos.add(mapResultSetToProducto(rs));
+                    }
+                }
+            }
+            cargarCategorias(conn, productos);
+        } catch (SQLException e) {
+            System.err.println("Error al obtener página de productos: " + e.getMessage());
+        }
+        return Pagina.de(productos, limite, p -> new CursorPagina(p.getNombre(), p.getIdProducto()));
+    }
+
     @Override
     public boolean update(Producto producto) {
-        String sql = "UPDATE producto SET nombre = ?, descripcion = ?, tamano = ?, precio = ? WHERE idProducto = ?";
+        String sql = "UPDATE producto SET nombre = ?, descripcion = ?, tamano = ?, precio = ?, codigo = ? " +
+                "WHERE idProducto = ?";
 
         try (Connection conn = dbConnection.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -106,9 +229,16 @@ public class ProductoDao implements CrudDao<Producto> {
             stmt.setString(2, producto.getDescripcion());
             stmt.setString(3, producto.getTamano());
             stmt.setBigDecimal(4, producto.getPrecio());
-            stmt.setInt(5, producto.getIdProducto());
-
-            return stmt.executeUpdate() > 0;
+            stmt.setString(5, producto.getCodigo());
+            stmt.setInt(6, producto.getIdProducto());
+
+            int actualizadas = stmt.executeUpdate();
+            cache.invalidar(producto.getIdProducto());
+            if (actualizadas > 0) {
+                cambioCatalogoDao.registrar(conn, CambioCatalogoDao.PRODUCTO, List.of(producto.getIdProducto()));
+                CatalogoCache.getInstance().productoGuardado(producto);
+                return true;
+            }
         } catch (SQLException e) {
             System.err.println("Error al actualizar producto: " + e.getMessage());
         }
@@ -123,7 +253,13 @@ public class ProductoDao implements CrudDao<Producto> {
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            int eliminadas = stmt.executeUpdate();
+            cache.invalidar(id);
+            if (eliminadas > 0) {
+                cambioCatalogoDao.registrar(conn, CambioCatalogoDao.PRODUCTO, List.of(id));
+                CatalogoCache.getInstance().productoEliminado(id);
+                return true;
+            }
         } catch (SQLException e) {
             System.err.println("Error al eliminar producto: " + e.getMessage());
         }
@@ -131,7 +267,8 @@ public class ProductoDao implements CrudDao<Producto> {
     }
 
     /**
-     * Busca productos por nombre (búsqueda parcial)
+     * Busca productos por nombre (búsqueda parcial). Para buscar sin distinguir acentos y tolerando
+     * errores de escritura sin consultar la base, usar {@link CatalogoCache#buscar(String, int)}.
      */
     public List<Producto> findByNombre(String nombre) {
         List<Producto> productos = new ArrayList<>();
@@ -144,17 +281,58 @@ public class ProductoDao implements CrudDao<Producto> {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Producto producto = mapResultSetToProducto(rs);
-                    producto.setCategorias(categoriaDao.findByProductoId(producto.getIdProducto()));
-                    productos.add(producto);
+                    productos.add(mapResultSetToProducto(rs));
                 }
             }
+            cargarCategorias(conn, productos);
         } catch (SQLException e) {
             System.err.println("Error al buscar productos por nombre: " + e.getMessage());
         }
         return productos;
     }
 
+    /**
+     * Busca productos por nombre y descripción con el índice FULLTEXT, de más a menos relevantes. Cada
+     * término se busca como inicio de palabra; los de menos de tres letras se filtran con LIKE y, si la
+     * base aún no tiene el índice (db/migracion_fulltext.sql), toda la búsqueda se hace con LIKE.
+     */
+    public List<Producto> buscarTexto(String texto) {
+        BusquedaTexto busqueda = new BusquedaTexto(COLUMNAS_TEXTO, texto);
+        if (busqueda.isVacia()) {
+            return findAll();
+        }
+        try (Connection conn = dbConnection.getConnection()) {
+            List<Producto> productos;
+            try {
+                productos = buscarTexto(conn, busqueda, true);
+            } catch (SQLException e) {
+                if (e.getErrorCode() != BusquedaTexto.SIN_INDICE_FULLTEXT) {
+                    throw e;
+                }
+                productos = buscarTexto(conn, busqueda, false);
+            }
+            cargarCategorias(conn, productos);
+            return productos;
+        } catch (SQLException e) {
+            System.err.println("Error al buscar productos por texto: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    private List<Producto> buscarTexto(Connection conn, BusquedaTexto busqueda, boolean usarIndice)
+            throws SQLException {
+        List<Producto> productos = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(busqueda.consulta("producto", "nombre", usarIndice))) {
+            busqueda.asignar(stmt, usarIndice);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    productos.add(mapResultSetToProducto(rs));
+                }
+            }
+        }
+        return productos;
+    }
+
     /**
      * Busca productos por categoría
      */
@@ -171,11 +349,10 @@ public class ProductoDao implements CrudDao<Producto> {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Producto producto = mapResultSetToProducto(rs);
-                    producto.setCategorias(categoriaDao.findByProductoId(producto.getIdProducto()));
-                    productos.add(producto);
+                    productos.add(mapResultSetToProducto(rs));
                 }
             }
+            cargarCategorias(conn, productos);
         } catch (SQLException e) {
             System.err.println("Error al buscar productos por categoría: " + e.getMessage());
         }
@@ -197,17 +374,47 @@ public class ProductoDao implements CrudDao<Producto> {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Producto producto = mapResultSetToProducto(rs);
-                    producto.setCategorias(categoriaDao.findByProductoId(producto.getIdProducto()));
-                    productos.add(producto);
+                    productos.add(mapResultSetToProducto(rs));
                 }
             }
+            cargarCategorias(conn, productos);
         } catch (SQLException e) {
             System.err.println("Error al buscar productos por rango de precio: " + e.getMessage());
         }
         return productos;
     }
 
+    /**
+     * Obtiene resúmenes de productos con sus categorías concatenadas en una sola consulta,
+     * sin construir objetos Categoria
+     */
+    public List<ProductoResumen> findResumenes() {
+        List<ProductoResumen> resumenes = new ArrayList<>();
+        String sql = "SELECT p.idProducto, p.nombre, p.tamano, p.precio, " +
+                "COALESCE(GROUP_CONCAT(c.nombre ORDER BY c.nombre SEPARATOR ', '), '') AS categorias " +
+                "FROM producto p " +
+                "LEFT JOIN productoCategoria pc ON pc.idProducto = p.idProducto " +
+                "LEFT JOIN categoria c ON c.idCategoria = pc.idCategoria " +
+                "GROUP BY p.idProducto, p.nombre, p.tamano, p.precio ORDER BY p.nombre";
+
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql);
+                ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                resumenes.add(new ProductoResumen(
+                        rs.getInt("idProducto"),
+                        rs.getString("nombre"),
+                        rs.getString("tamano"),
+                        rs.getBigDecimal("precio"),
+                        rs.getString("categorias")));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al obtener resúmenes de productos: " + e.getMessage());
+        }
+        return resumenes;
+    }
+
     /**
      * Asigna una categoría a un producto
      */
@@ -221,7 +428,13 @@ public class ProductoDao implements CrudDao<Producto> {
             stmt.setInt(1, idProducto);
             stmt.setInt(2, idCategoria);
 
-            return stmt.executeUpdate() > 0;
+            int insertadas = stmt.executeUpdate();
+            cache.invalidar(idProducto);
+            if (insertadas > 0) {
+                cambioCatalogoDao.registrar(conn, CambioCatalogoDao.PRODUCTO, List.of(idProducto));
+                CatalogoCache.getInstance().categoriaAsignada(idProducto, idCategoria);
+                return true;
+            }
         } catch (SQLException e) {
             System.err.println("Error al asignar categoría al producto: " + e.getMessage());
         }
@@ -240,13 +453,90 @@ public class ProductoDao implements CrudDao<Producto> {
             stmt.setInt(1, idProducto);
             stmt.setInt(2, idCategoria);
 
-            return stmt.executeUpdate() > 0;
+            int eliminadas = stmt.executeUpdate();
+            cache.invalidar(idProducto);
+            if (eliminadas > 0) {
+                cambioCatalogoDao.registrar(conn, CambioCatalogoDao.PRODUCTO, List.of(idProducto));
+                CatalogoCache.getInstance().categoriaDesasignada(idProducto, idCategoria);
+                return true;
+            }
         } catch (SQLException e) {
             System.err.println("Error al desasignar categoría del producto: " + e.getMessage());
         }
         return false;
     }
 
+    /**
+     * Obtiene varios productos por ID, indexados por ID. Los que están en caché (siempre con sus categorías)
+     * no se consultan; el resto se lee con consultas por lote y, si trae categorías, se guarda en la caché.
+     *
+     * @param conCategorias true para cargar también las categorías de cada producto
+     */
+    public Map<Integer, Producto> findByIds(Connection conn, Collection<Integer> ids, boolean conCategorias)
+            throws SQLException {
+        Map<Integer, Producto> porId = new HashMap<>();
+        List<Integer> faltantes = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            if (id == null) {
+                continue;
+            }
+            Producto enCache = cache.get(id);
+            if (enCache != null) {
+                porId.put(id, enCache);
+            } else {
+                faltantes.add(id);
+            }
+        }
+
+        long generacion = cache.getGeneracion();
+        List<Producto> productos = new ArrayList<>();
+        for (List<Integer> lote : SqlUtils.lotes(faltantes)) {
+            String sql = "SELECT * FROM producto WHERE idProducto IN (" + SqlUtils.marcadores(lote.size()) + ")";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < lote.size(); i++) {
+                    stmt.setInt(i + 1, lote.get(i));
+                }
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        productos.add(mapResultSetToProducto(rs));
+                    }
+                }
+            }
+        }
+
+        if (conCategorias) {
+            cargarCategorias(conn, productos);
+        }
+
+        for (Producto producto : productos) {
+            porId.put(producto.getIdProducto(), producto);
+            if (conCategorias) {
+                cache.put(producto.getIdProducto(), producto, generacion);
+            }
+        }
+        return porId;
+    }
+
+    /**
+     * Carga las categorías de los productos con consultas por lote en lugar de una por producto
+     */
+    private void cargarCategorias(Connection conn, List<Producto> productos) throws SQLException {
+        if (productos.isEmpty()) {
+            return;
+        }
+
+        List<Integer> ids = new ArrayList<>(productos.size());
+        for (Producto producto : productos) {
+            ids.add(producto.getIdProducto());
+        }
+
+        Map<Integer, List<Categoria>> categorias = categoriaDao.findByProductoIds(conn, ids);
+        for (Producto producto : productos) {
+            producto.setCategorias(categorias.getOrDefault(producto.getIdProducto(), new ArrayList<>()));
+        }
+    }
+
     /**
      * Mapea un ResultSet a un objeto Producto
      */
@@ -257,6 +547,7 @@ public class ProductoDao implements CrudDao<Producto> {
         producto.setDescripcion(rs.getString("descripcion"));
         producto.setTamano(rs.getString("tamano"));
         producto.setPrecio(rs.getBigDecimal("precio"));
+        producto.setCodigo(rs.getString("codigo"));
         return producto;
     }
 }
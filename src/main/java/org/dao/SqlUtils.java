@@ -0,0 +1,66 @@
+package org.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Utilidades para construir consultas por lotes con cláusulas IN
+ */
+final class SqlUtils {
+
+    /**
+     * Tamaños de lote permitidos. Los lotes se rellenan hasta el siguiente tamaño
+     * para que solo existan unas pocas variantes del SQL en la caché de sentencias.
+     */
+    private static final int[] TAMANOS_LOTE = { 1, 4, 16, 64, 256, 1000 };
+
+    private SqlUtils() {
+    }
+
+    /**
+     * Divide los IDs (sin repetidos ni nulos) en lotes de tamaño normalizado.
+     * Los lugares sobrantes se rellenan repitiendo el último ID, lo que no altera el resultado de un IN.
+     */
+    static List<List<Integer>> lotes(Collection<Integer> ids) {
+        List<Integer> unicos = new ArrayList<>(new LinkedHashSet<>(ids));
+        unicos.removeIf(id -> id == null);
+
+        List<List<Integer>> lotes = new ArrayList<>();
+        int maximo = TAMANOS_LOTE[TAMANOS_LOTE.length - 1];
+        for (int inicio = 0; inicio < unicos.size(); inicio += maximo) {
+            List<Integer> lote = new ArrayList<>(unicos.subList(inicio, Math.min(unicos.size(), inicio + maximo)));
+            int tamano = tamanoNormalizado(lote.size());
+            Integer relleno = lote.get(lote.size() - 1);
+            while (lote.size() < tamano) {
+                lote.add(relleno);
+            }
+            lotes.add(lote);
+        }
+        return lotes;
+    }
+
+    /**
+     * Genera la lista de marcadores "?, ?, ?" para una cláusula IN
+     */
+    static String marcadores(int cantidad) {
+        StringBuilder sb = new StringBuilder(cantidad * 3);
+        for (int i = 0; i < cantidad; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    private static int tamanoNormalizado(int cantidad) {
+        for (int tamano : TAMANOS_LOTE) {
+            if (cantidad <= tamano) {
+                return tamano;
+            }
+        }
+        return cantidad;
+    }
+}
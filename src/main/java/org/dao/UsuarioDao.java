@@ -1,37 +1,39 @@
 package org.dao;
 
+import org.cache.CachesEntidades;
+import org.cache.IntCache;
 import org.database.DatabaseConnection;
 import org.models.Usuario;
 import org.utils.PasswordUtils;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 public class UsuarioDao implements CrudDao<Usuario> {
 
     private final DatabaseConnection dbConnection;
+    private final CambioCatalogoDao cambioCatalogoDao;
+    private final IntCache<Usuario> cache;
 
     public UsuarioDao() {
         this.dbConnection = DatabaseConnection.getInstance();
+        this.cambioCatalogoDao = new CambioCatalogoDao();
+        this.cache = CachesEntidades.usuarios();
     }
 
     @Override
     public Integer insert(Usuario usuario) {
         validarUsuario(usuario);
-        String sql = "INSERT INTO usuario (rol, contrasena, nombres, apellidoPaterno, " +
-                "apellidoMaterno, correo, telefono, sexo) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
         try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                PreparedStatement stmt = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
 
-            stmt.setString(1, usuario.getRol());
-            stmt.setString(2, PasswordUtils.hashPassword(usuario.getContrasena()));
-            stmt.setString(3, usuario.getNombres());
-            stmt.setString(4, usuario.getApellidoPaterno());
-            stmt.setString(5, usuario.getApellidoMaterno());
-            stmt.setString(6, usuario.getCorreo());
-            stmt.setString(7, usuario.getTelefono());
-            stmt.setString(8, usuario.getSexo());
+            asignarParametrosInsert(stmt, usuario, PasswordUtils.hashPassword(usuario.getContrasena()));
 
             int affectedRows = stmt.executeUpdate();
 
@@ -40,6 +42,7 @@ public class UsuarioDao implements CrudDao<Usuario> {
                     if (generatedKeys.next()) {
                         Integer id = generatedKeys.getInt(1);
                         usuario.setIdUsuario(id);
+                        cambioCatalogoDao.registrar(conn, CambioCatalogoDao.USUARIO, List.of(id));
                         return id;
                     }
                 }
@@ -50,9 +53,56 @@ public class UsuarioDao implements CrudDao<Usuario> {
         return null;
     }
 
+    /**
+     * Inserta varios usuarios en una transacción. Las contraseñas se cifran
+     * antes de pedir la conexión para no retenerla mientras se calcula cada hash.
+     */
+    @Override
+    public List<Integer> insertAll(Collection<Usuario> usuarios) {
+        Map<Usuario, String> hashes = new IdentityHashMap<>();
+        for (Usuario usuario : usuarios) {
+            validarUsuario(usuario);
+            hashes.put(usuario, PasswordUtils.hashPassword(usuario.getContrasena()));
+        }
+
+        try (Connection conn = dbConnection.getConnection()) {
+            List<Integer> ids = InsercionPorLotes.insertar(conn, SQL_INSERT, usuarios,
+                    (stmt, usuario) -> asignarParametrosInsert(stmt, usuario, hashes.get(usuario)),
+                    Usuario::setIdUsuario);
+            cambioCatalogoDao.registrar(conn, CambioCatalogoDao.USUARIO, ids);
+            return ids;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al insertar usuarios: " + e.getMessage(), e);
+        }
+    }
+
+    private static final String SQL_INSERT = "INSERT INTO usuario (rol, contrasena, nombres, apellidoPaterno, " +
+            "apellidoMaterno, correo, telefono, sexo) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static void asignarParametrosInsert(PreparedStatement stmt, Usuario usuario, String hashContrasena)
+            throws SQLException {
+        stmt.setString(1, usuario.getRol());
+        stmt.setString(2, hashContrasena);
+        stmt.setString(3, usuario.getNombres());
+        stmt.setString(4, usuario.getApellidoPaterno());
+        stmt.setString(5, usuario.getApellidoMaterno());
+        stmt.setString(6, usuario.getCorreo());
+        stmt.setString(7, usuario.getTelefono());
+        stmt.setString(8, usuario.getSexo());
+    }
+
+    /**
+     * Busca un usuario por ID; la instancia devuelta puede venir de la caché y es compartida
+     */
     @Override
     public Usuario findById(Integer id) {
+        Usuario enCache = cache.get(id);
+        if (enCache != null) {
+            return enCache;
+        }
+
         String sql = "SELECT * FROM usuario WHERE idUsuario = ?";
+        long generacion = cache.getGeneracion();
         try (Connection conn = dbConnection.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
@@ -60,7 +110,9 @@ public class UsuarioDao implements CrudDao<Usuario> {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapResultSetToUsuario(rs);
+                    Usuario usuario = mapResultSetToUsuario(rs);
+                    cache.put(id, usuario, generacion);
+                    return usuario;
                 }
             }
         } catch (SQLException e) {
@@ -86,6 +138,39 @@ public class UsuarioDao implements CrudDao<Usuario> {
         return usuarios;
     }
 
+    /**
+     * Página de usuarios ordenada por apellido paterno e ID
+     */
+    @Override
+    public Pagina<Usuario> findPage(CursorPagina despues, int tamano) {
+        int limite = Pagina.tamanoValido(tamano);
+        List<Usuario> usuarios = new ArrayList<>();
+        String sql = despues == null
+                ? "SELECT * FROM usuario ORDER BY apellidoPaterno, idUsuario LIMIT ?"
+                : "SELECT * FROM usuario WHERE apellidoPaterno > ? OR (apellidoPaterno = ? AND idUsuario > ?) " +
+                        "ORDER BY apellidoPaterno, idUsuario LIMIT ?";
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            if (despues != null) {
+                stmt.setString(i++, (String) despues.getClave());
+                stmt.setString(i++, (String) despues.getClave());
+                stmt.setInt(i++, despues.getId());
+            }
+            stmt.setInt(i, limite + 1);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    usuarios.add(mapResultSetToUsuario(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al obtener página de usuarios: " + e.getMessage(), e);
+        }
+        return Pagina.de(usuarios, limite, u -> new CursorPagina(u.getApellidoPaterno(), u.getIdUsuario()));
+    }
+
     @Override
     public boolean update(Usuario usuario) {
         validarUsuario(usuario);
@@ -110,7 +195,13 @@ public class UsuarioDao implements CrudDao<Usuario> {
             stmt.setString(8, usuario.getSexo());
             stmt.setInt(9, usuario.getIdUsuario());
 
-            return stmt.executeUpdate() > 0;
+            int actualizadas = stmt.executeUpdate();
+            cache.invalidar(usuario.getIdUsuario());
+            if (actualizadas > 0) {
+                cambioCatalogoDao.registrar(conn, CambioCatalogoDao.USUARIO, List.of(usuario.getIdUsuario()));
+                return true;
+            }
+            return false;
         } catch (SQLException e) {
             throw new RuntimeException("Error al actualizar usuario: " + e.getMessage(), e);
         }
@@ -123,7 +214,13 @@ public class UsuarioDao implements CrudDao<Usuario> {
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            int eliminadas = stmt.executeUpdate();
+            cache.invalidar(id);
+            if (eliminadas > 0) {
+                cambioCatalogoDao.registrar(conn, CambioCatalogoDao.USUARIO, List.of(id));
+                return true;
+            }
+            return false;
         } catch (SQLException e) {
             throw new RuntimeException("Error al eliminar usuario: " + e.getMessage(), e);
         }
@@ -224,6 +321,45 @@ public class UsuarioDao implements CrudDao<Usuario> {
         return insert(nuevoUsuario) != null;
     }
 
+    /**
+     * Obtiene varios usuarios por ID, indexados por ID. Los que están en caché no se consultan;
+     * el resto se lee con consultas por lote y se guarda en la caché.
+     */
+    Map<Integer, Usuario> findByIds(Connection conn, Collection<Integer> ids) throws SQLException {
+        Map<Integer, Usuario> usuarios = new HashMap<>();
+        List<Integer> faltantes = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            if (id == null) {
+                continue;
+            }
+            Usuario enCache = cache.get(id);
+            if (enCache != null) {
+                usuarios.put(id, enCache);
+            } else {
+                faltantes.add(id);
+            }
+        }
+
+        long generacion = cache.getGeneracion();
+        for (List<Integer> lote : SqlUtils.lotes(faltantes)) {
+            String sql = "SELECT * FROM usuario WHERE idUsuario IN (" + SqlUtils.marcadores(lote.size()) + ")";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < lote.size(); i++) {
+                    stmt.setInt(i + 1, lote.get(i));
+                }
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Usuario usuario = mapResultSetToUsuario(rs);
+                        usuarios.put(usuario.getIdUsuario(), usuario);
+                        cache.put(usuario.getIdUsuario(), usuario, generacion);
+                    }
+                }
+            }
+        }
+        return usuarios;
+    }
+
     private Usuario mapResultSetToUsuario(ResultSet rs) throws SQLException {
         Usuario usuario = new Usuario();
         usuario.setIdUsuario(rs.getInt("idUsuario"));
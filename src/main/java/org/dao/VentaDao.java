@@ -1,77 +1,160 @@
 package org.dao;
 
+import org.dao.VentaGraphLoader.Profundidad;
 import org.database.DatabaseConnection;
 import org.models.Venta;
-import org.models.VentaProducto;
+import org.models.VentaResumen;
 
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
- * DAO para operaciones CRUD de Venta
+ * DAO para operaciones CRUD de Venta.
+ * Los listados sin profundidad explícita cargan el usuario y los productos de forma diferida.
  */
 public class VentaDao implements CrudDao<Venta> {
 
     private final DatabaseConnection dbConnection;
-    private final UsuarioDao usuarioDao;
-    private final VentaProductoDao ventaProductoDao;
+    private final VentaGraphLoader graphLoader;
 
     public VentaDao() {
         this.dbConnection = DatabaseConnection.getInstance();
-        this.usuarioDao = new UsuarioDao();
-        this.ventaProductoDao = new VentaProductoDao();
+        this.graphLoader = new VentaGraphLoader(new UsuarioDao(), new VentaProductoDao());
     }
 
+    /**
+     * Inserta la venta. Si no trae ID se le asigna uno del {@link GeneradorIds};
+     * si ya existe una venta con ese ID falla por llave duplicada.
+     */
     @Override
     public Integer insert(Venta venta) {
-        String sql = "INSERT INTO venta (fecha, idUsuario, total) VALUES (?, ?, ?)";
-
-        try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try {
+            asignarId(venta);
+        } catch (SQLException e) {
+            System.err.println("Error al asignar ID de venta: " + e.getMessage());
+            return null;
+        }
 
-            stmt.setTimestamp(1, Timestamp.valueOf(venta.getFecha()));
-            stmt.setInt(2, venta.getIdUsuario());
-            stmt.setBigDecimal(3, venta.getTotal());
+        try (Connection conn = dbConnection.getConnection()) {
+            return insert(conn, venta);
+        } catch (SQLException e) {
+            System.err.println("Error al insertar venta: " + e.getMessage());
+        }
+        return null;
+    }
 
-            int affectedRows = stmt.executeUpdate();
+    /**
+     * Inserta el encabezado de la venta usando la conexión (y transacción) del llamador.
+     * La venta debe traer su ID, asignado con {@link GeneradorIds} antes de abrir la transacción.
+     *
+     * @return El ID de la venta
+     */
+    public Integer insert(Connection conn, Venta venta) throws SQLException {
+        requerirId(venta);
+        try (PreparedStatement stmt = conn.prepareStatement(SQL_INSERT)) {
+            asignarParametrosInsert(stmt, venta);
+            stmt.executeUpdate();
+        }
+        return venta.getIdVenta();
+    }
 
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        Integer id = generatedKeys.getInt(1);
-                        venta.setIdVenta(id);
-                        return id;
-                    }
-                }
+    /**
+     * Inserta varios encabezados de venta en una transacción. No inserta sus productos.
+     */
+    @Override
+    public List<Integer> insertAll(Collection<Venta> ventas) {
+        try {
+            for (Venta venta : ventas) {
+                asignarId(venta);
             }
         } catch (SQLException e) {
-            System.err.println("Error al insertar venta: " + e.getMessage());
+            System.err.println("Error al asignar IDs de venta: " + e.getMessage());
+            return new ArrayList<>();
+        }
+
+        try (Connection conn = dbConnection.getConnection()) {
+            return insertAll(conn, ventas);
+        } catch (SQLException e) {
+            System.err.println("Error al insertar ventas: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Inserta los encabezados en lote usando la conexión (y transacción) del llamador.
+     * Cada venta debe traer su ID, asignado con {@link GeneradorIds} antes de abrir la transacción.
+     *
+     * @return Los IDs de las ventas en el mismo orden
+     */
+    public List<Integer> insertAll(Connection conn, Collection<Venta> ventas) throws SQLException {
+        List<Integer> ids = new ArrayList<>(ventas.size());
+        for (Venta venta : ventas) {
+            requerirId(venta);
+            ids.add(venta.getIdVenta());
+        }
+        InsercionPorLotes.insertarSinIds(conn, SQL_INSERT, ventas, VentaDao::asignarParametrosInsert);
+        return ids;
+    }
+
+    // Un ID repetido falla: puede ser de otra venta (por ejemplo, un cliente que inserta sin ID y toma
+    // valores de un bloque reservado). Los reintentos del diario se filtran antes por su secuencia.
+    private static final String SQL_INSERT = "INSERT INTO venta (idVenta, fecha, idUsuario, total) " +
+            "VALUES (?, ?, ?, ?)";
+
+    private static void asignarParametrosInsert(PreparedStatement stmt, Venta venta) throws SQLException {
+        stmt.setInt(1, venta.getIdVenta());
+        stmt.setTimestamp(2, Timestamp.valueOf(venta.getFecha()));
+        stmt.setInt(3, venta.getIdUsuario());
+        stmt.setBigDecimal(4, venta.getTotal());
+    }
+
+    private static void asignarId(Venta venta) throws SQLException {
+        if (venta.getIdVenta() == null) {
+            venta.setIdVenta(GeneradorIds.ventas().siguiente());
+        }
+    }
+
+    private static void requerirId(Venta venta) throws SQLException {
+        if (venta.getIdVenta() == null) {
+            throw new SQLException("La venta no tiene ID asignado");
         }
-        return null;
     }
 
     @Override
     public Venta findById(Integer id) {
+        return findById(id, Profundidad.CATEGORIAS);
+    }
+
+    /**
+     * Busca una venta por su ID hidratándola hasta la profundidad indicada
+     */
+    public Venta findById(Integer id, Profundidad profundidad) {
         String sql = "SELECT * FROM venta WHERE idVenta = ?";
 
-        try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dbConnection.getConnection()) {
+            List<Venta> ventas = new ArrayList<>(1);
 
-            stmt.setInt(1, id);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, id);
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Venta venta = mapResultSetToVenta(rs);
-                    // Cargar el usuario de la venta
-                    venta.setUsuario(usuarioDao.findById(venta.getIdUsuario()));
-                    // Cargar los productos de la venta
-                    venta.setProductos(ventaProductoDao.findByVentaId(id));
-                    return venta;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        ventas.add(mapResultSetToVenta(rs));
+                    }
                 }
             }
+
+            if (!ventas.isEmpty()) {
+                // Cargar el usuario y los productos de la venta
+                graphLoader.cargar(conn, ventas, profundidad);
+                return ventas.get(0);
+            }
         } catch (SQLException e) {
             System.err.println("Error al buscar venta por ID: " + e.getMessage());
         }
@@ -80,25 +163,69 @@ public class VentaDao implements CrudDao<Venta> {
 
     @Override
     public List<Venta> findAll() {
+        return conCargaDiferida(findAll(Profundidad.VENTA));
+    }
+
+    /**
+     * Obtiene todas las ventas hidratándolas hasta la profundidad indicada
+     */
+    public List<Venta> findAll(Profundidad profundidad) {
         List<Venta> ventas = new ArrayList<>();
         String sql = "SELECT * FROM venta ORDER BY fecha DESC";
 
-        try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql);
-                ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                Venta venta = mapResultSetToVenta(rs);
-                venta.setUsuario(usuarioDao.findById(venta.getIdUsuario()));
-                venta.setProductos(ventaProductoDao.findByVentaId(venta.getIdVenta()));
-                ventas.add(venta);
+        try (Connection conn = dbConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                    ResultSet rs = stmt.executeQuery()) {
+
+                while (rs.next()) {
+                    ventas.add(mapResultSetToVenta(rs));
+                }
             }
+            graphLoader.cargar(conn, ventas, profundidad);
         } catch (SQLException e) {
             System.err.println("Error al obtener todas las ventas: " + e.getMessage());
         }
         return ventas;
     }
 
+    /**
+     * Página de ventas de la más reciente a la más antigua.
+     * El usuario y los productos de la página se cargan de forma diferida.
+     */
+    @Override
+    public Pagina<Venta> findPage(CursorPagina despues, int tamano) {
+        int limite = Pagina.tamanoValido(tamano);
+        List<Venta> ventas = new ArrayList<>();
+        String sql = despues == null
+                ? "SELECT * FROM venta ORDER BY fecha DESC, idVenta DESC LIMIT ?"
+                : "SELECT * FROM venta WHERE fecha < ? OR (fecha = ? AND idVenta < ?) " +
+                        "ORDER BY fecha DESC, idVenta DESC LIMIT ?";
+
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            if (despues != null) {
+                Timestamp fecha = Timestamp.valueOf((LocalDateTime) despues.getClave());
+                stmt.setTimestamp(i++, fecha);
+                stmt.setTimestamp(i++, fecha);
+                stmt.setInt(i++, despues.getId());
+            }
+            stmt.setInt(i, limite + 1);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ventas.add(mapResultSetToVenta(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al obtener página de ventas: " + e.getMessage());
+        }
+        Pagina<Venta> pagina = Pagina.de(ventas, limite, v -> new CursorPagina(v.getFecha(), v.getIdVenta()));
+        conCargaDiferida(pagina.getElementos());
+        return pagina;
+    }
+
     @Override
     public boolean update(Venta venta) {
         String sql = "UPDATE venta SET fecha = ?, idUsuario = ?, total = ? WHERE idVenta = ?";
@@ -137,6 +264,13 @@ public class VentaDao implements CrudDao<Venta> {
      * Busca ventas por usuario
      */
     public List<Venta> findByUsuario(Integer idUsuario) {
+        return conCargaDiferida(findByUsuario(idUsuario, Profundidad.VENTA));
+    }
+
+    /**
+     * Busca ventas por usuario hidratándolas hasta la profundidad indicada
+     */
+    public List<Venta> findByUsuario(Integer idUsuario, Profundidad profundidad) {
         List<Venta> ventas = new ArrayList<>();
         String sql = "SELECT * FROM venta WHERE idUsuario = ? ORDER BY fecha DESC";
 
@@ -147,12 +281,10 @@ public class VentaDao implements CrudDao<Venta> {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Venta venta = mapResultSetToVenta(rs);
-                    venta.setUsuario(usuarioDao.findById(venta.getIdUsuario()));
-                    venta.setProductos(ventaProductoDao.findByVentaId(venta.getIdVenta()));
-                    ventas.add(venta);
+                    ventas.add(mapResultSetToVenta(rs));
                 }
             }
+            graphLoader.cargar(conn, ventas, profundidad);
         } catch (SQLException e) {
             System.err.println("Error al buscar ventas por usuario: " + e.getMessage());
         }
@@ -163,6 +295,14 @@ public class VentaDao implements CrudDao<Venta> {
      * Busca ventas por rango de fechas
      */
     public List<Venta> findByFechaRange(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        return conCargaDiferida(findByFechaRange(fechaInicio, fechaFin, Profundidad.VENTA));
+    }
+
+    /**
+     * Busca ventas por rango de fechas hidratándolas hasta la profundidad indicada
+     */
+    public List<Venta> findByFechaRange(LocalDateTime fechaInicio, LocalDateTime fechaFin,
+            Profundidad profundidad) {
         List<Venta> ventas = new ArrayList<>();
         String sql = "SELECT * FROM venta WHERE fecha BETWEEN ? AND ? ORDER BY fecha DESC";
 
@@ -174,12 +314,10 @@ public class VentaDao implements CrudDao<Venta> {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Venta venta = mapResultSetToVenta(rs);
-                    venta.setUsuario(usuarioDao.findById(venta.getIdUsuario()));
-                    venta.setProductos(ventaProductoDao.findByVentaId(venta.getIdVenta()));
-                    ventas.add(venta);
+                    ventas.add(mapResultSetToVenta(rs));
                 }
             }
+            graphLoader.cargar(conn, ventas, profundidad);
         } catch (SQLException e) {
             System.err.println("Error al buscar ventas por rango de fecha: " + e.getMessage());
         }
@@ -212,25 +350,157 @@ public class VentaDao implements CrudDao<Venta> {
      * Obtiene las ventas del día actual
      */
     public List<Venta> getVentasHoy() {
+        return conCargaDiferida(getVentasHoy(Profundidad.VENTA));
+    }
+
+    /**
+     * Obtiene las ventas del día actual hidratándolas hasta la profundidad indicada
+     */
+    public List<Venta> getVentasHoy(Profundidad profundidad) {
         List<Venta> ventas = new ArrayList<>();
         String sql = "SELECT * FROM venta WHERE DATE(fecha) = CURDATE() ORDER BY fecha DESC";
 
-        try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql);
-                ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                Venta venta = mapResultSetToVenta(rs);
-                venta.setUsuario(usuarioDao.findById(venta.getIdUsuario()));
-                venta.setProductos(ventaProductoDao.findByVentaId(venta.getIdVenta()));
-                ventas.add(venta);
+        try (Connection conn = dbConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                    ResultSet rs = stmt.executeQuery()) {
+
+                while (rs.next()) {
+                    ventas.add(mapResultSetToVenta(rs));
+                }
             }
+            graphLoader.cargar(conn, ventas, profundidad);
         } catch (SQLException e) {
             System.err.println("Error al obtener ventas de hoy: " + e.getMessage());
         }
         return ventas;
     }
 
+    /**
+     * Obtiene una página con las ventas más recientes, hidratada hasta la profundidad indicada
+     * con un número fijo de consultas
+     */
+    public List<Venta> findRecientes(int limite, Profundidad profundidad) {
+        List<Venta> ventas = new ArrayList<>();
+        String sql = "SELECT * FROM venta ORDER BY fecha DESC, idVenta DESC LIMIT ?";
+
+        try (Connection conn = dbConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, limite);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ventas.add(mapResultSetToVenta(rs));
+                    }
+                }
+            }
+            graphLoader.cargar(conn, ventas, profundidad);
+        } catch (SQLException e) {
+            System.err.println("Error al obtener ventas recientes: " + e.getMessage());
+        }
+        return ventas;
+    }
+
+    /**
+     * Obtiene resúmenes de ventas (id, fecha, total, cajero y número de productos)
+     * en una sola consulta, sin construir el grafo de objetos
+     *
+     * @param limite Máximo de filas a devolver, las más recientes primero
+     */
+    public List<VentaResumen> findResumenes(LocalDateTime fechaInicio, LocalDateTime fechaFin, int limite) {
+        List<VentaResumen> resumenes = new ArrayList<>();
+        String sql = "SELECT v.idVenta, v.fecha, v.total, " +
+                "CONCAT_WS(' ', u.nombres, u.apellidoPaterno, u.apellidoMaterno) AS cajero, " +
+                "(SELECT COUNT(*) FROM ventaProducto vp WHERE vp.idVenta = v.idVenta) AS numeroLineas " +
+                "FROM venta v INNER JOIN usuario u ON u.idUsuario = v.idUsuario " +
+                "WHERE v.fecha BETWEEN ? AND ? ORDER BY v.fecha DESC, v.idVenta DESC LIMIT ?";
+
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(fechaInicio));
+            stmt.setTimestamp(2, Timestamp.valueOf(fechaFin));
+            stmt.setInt(3, limite);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    resumenes.add(mapResultSetToVentaResumen(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al obtener resúmenes de ventas: " + e.getMessage());
+        }
+        return resumenes;
+    }
+
+    /**
+     * Obtiene los resúmenes de las ventas del día actual
+     */
+    public List<VentaResumen> getResumenesHoy() {
+        LocalDateTime inicioDia = LocalDateTime.now().toLocalDate().atStartOfDay();
+        return findResumenes(inicioDia, inicioDia.plusDays(1).minusNanos(1000), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Recorre en streaming las ventas del rango, de la más antigua a la más reciente.
+     * Las ventas no traen usuario ni productos. El Stream mantiene ocupada una conexión
+     * hasta cerrarse, por lo que debe usarse con try-with-resources.
+     *
+     * @throws RuntimeException si la consulta falla al abrirse o durante la lectura
+     */
+    public Stream<Venta> streamByFechaRange(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        try {
+            return LecturaSecuencial.abrir(dbConnection, SQL_VENTAS_POR_RANGO,
+                    stmt -> asignarRango(stmt, fechaInicio, fechaFin), this::mapResultSetToVenta);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al abrir lectura de ventas: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Entrega al consumidor cada venta del rango, de la más antigua a la más reciente,
+     * sin acumularlas en memoria. Las ventas no traen usuario ni productos.
+     *
+     * @return Número de ventas procesadas
+     * @throws RuntimeException si la consulta falla
+     */
+    public long forEachByFechaRange(LocalDateTime fechaInicio, LocalDateTime fechaFin, Consumer<Venta> consumidor) {
+        try {
+            return LecturaSecuencial.recorrer(dbConnection, SQL_VENTAS_POR_RANGO,
+                    stmt -> asignarRango(stmt, fechaInicio, fechaFin), this::mapResultSetToVenta, consumidor);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al recorrer ventas: " + e.getMessage(), e);
+        }
+    }
+
+    private static final String SQL_VENTAS_POR_RANGO =
+            "SELECT * FROM venta WHERE fecha BETWEEN ? AND ? ORDER BY fecha, idVenta";
+
+    private static void asignarRango(PreparedStatement stmt, LocalDateTime fechaInicio, LocalDateTime fechaFin)
+            throws SQLException {
+        stmt.setTimestamp(1, Timestamp.valueOf(fechaInicio));
+        stmt.setTimestamp(2, Timestamp.valueOf(fechaFin));
+    }
+
+    /**
+     * Adjunta la carga diferida por lote a las ventas de un listado
+     */
+    private List<Venta> conCargaDiferida(List<Venta> ventas) {
+        graphLoader.adjuntarCargaDiferida(ventas);
+        return ventas;
+    }
+
+    /**
+     * Mapea un ResultSet a un resumen de venta
+     */
+    private VentaResumen mapResultSetToVentaResumen(ResultSet rs) throws SQLException {
+        return new VentaResumen(
+                rs.getInt("idVenta"),
+                rs.getTimestamp("fecha").toLocalDateTime(),
+                rs.getBigDecimal("total"),
+                rs.getString("cajero"),
+                rs.getInt("numeroLineas"));
+    }
+
     /**
      * Mapea un ResultSet a un objeto Venta
      */
@@ -0,0 +1,93 @@
+package org.dao;
+
+import org.database.DatabaseConnection;
+import org.models.Usuario;
+import org.models.Venta;
+import org.models.VentaProducto;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Carga el grafo de un conjunto de ventas (Usuario → VentaProducto → Producto → Categoria)
+ * con un número fijo de consultas por lote, sin importar cuántas ventas sean.
+ * También puede dejar las asociaciones pendientes para cargarlas por lote en el primer acceso.
+ */
+public class VentaGraphLoader {
+
+    /**
+     * Hasta dónde hidratar cada venta. Cada nivel incluye a los anteriores.
+     */
+    public enum Profundidad {
+        /** Solo las columnas de la tabla venta */
+        VENTA,
+        /** Venta y su usuario (cajero) */
+        USUARIO,
+        /** Además los detalles de venta, sin productos */
+        LINEAS,
+        /** Además el producto de cada detalle */
+        PRODUCTOS,
+        /** Además las categorías de cada producto (grafo completo) */
+        CATEGORIAS
+    }
+
+    private final DatabaseConnection dbConnection;
+    private final UsuarioDao usuarioDao;
+    private final VentaProductoDao ventaProductoDao;
+
+    public VentaGraphLoader(UsuarioDao usuarioDao, VentaProductoDao ventaProductoDao) {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.usuarioDao = usuarioDao;
+        this.ventaProductoDao = ventaProductoDao;
+    }
+
+    /**
+     * Deja el usuario y los productos de las ventas para cargarse en el primer acceso.
+     * Al acceder a la asociación de una venta se carga para todo el lote con una consulta.
+     */
+    public void adjuntarCargaDiferida(List<Venta> ventas) {
+        if (!ventas.isEmpty()) {
+            new CargaDiferidaVentas(dbConnection, usuarioDao, ventaProductoDao, ventas).adjuntar();
+        }
+    }
+
+    /**
+     * Hidrata las ventas hasta la profundidad indicada usando la conexión recibida
+     */
+    public void cargar(Connection conn, List<Venta> ventas, Profundidad profundidad) throws SQLException {
+        if (ventas.isEmpty() || profundidad == Profundidad.VENTA) {
+            return;
+        }
+
+        List<Integer> idsUsuario = new ArrayList<>(ventas.size());
+        List<Integer> idsVenta = new ArrayList<>(ventas.size());
+        for (Venta venta : ventas) {
+            idsUsuario.add(venta.getIdUsuario());
+            idsVenta.add(venta.getIdVenta());
+        }
+
+        Map<Integer, Usuario> usuarios = usuarioDao.findByIds(conn, idsUsuario);
+        for (Venta venta : ventas) {
+            venta.setUsuario(usuarios.get(venta.getIdUsuario()));
+        }
+
+        if (profundidad.compareTo(Profundidad.LINEAS) < 0) {
+            return;
+        }
+
+        Map<Integer, List<VentaProducto>> lineas = ventaProductoDao.findByVentaIds(conn, idsVenta);
+        List<VentaProducto> todas = new ArrayList<>();
+        for (Venta venta : ventas) {
+            List<VentaProducto> deVenta = lineas.getOrDefault(venta.getIdVenta(), new ArrayList<>());
+            venta.setProductos(deVenta);
+            todas.addAll(deVenta);
+        }
+
+        if (profundidad.compareTo(Profundidad.PRODUCTOS) >= 0) {
+            ventaProductoDao.cargarProductos(conn, todas, profundidad == Profundidad.CATEGORIAS);
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package org.dao;
 
 import org.database.DatabaseConnection;
+import org.models.Producto;
 import org.models.VentaProducto;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * DAO para operaciones CRUD de VentaProducto
@@ -21,18 +28,15 @@ public class VentaProductoDao {
     }
 
     /**
-     * Inserta un nuevo detalle de venta (producto en venta)
+     * Inserta un nuevo detalle de venta (producto en venta).
+     * Si la venta ya tiene ese producto falla por llave duplicada, igual que insertAll;
+     * para cambiar la cantidad de un detalle existente usar {@link #updateCantidad}.
      */
     public boolean insert(VentaProducto ventaProducto) {
-        String sql = "INSERT INTO ventaProducto (idVenta, idProducto, cantidad) VALUES (?, ?, ?) " +
-                "ON DUPLICATE KEY UPDATE cantidad = cantidad + VALUES(cantidad)";
-
         try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+                PreparedStatement stmt = conn.prepareStatement(SQL_INSERT)) {
 
-            stmt.setInt(1, ventaProducto.getIdVenta());
-            stmt.setInt(2, ventaProducto.getIdProducto());
-            stmt.setInt(3, ventaProducto.getCantidad());
+            asignarParametrosInsert(stmt, ventaProducto);
 
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
@@ -41,6 +45,38 @@ public class VentaProductoDao {
         return false;
     }
 
+    /**
+     * Inserta varios detalles de venta en una transacción usando batching JDBC.
+     * Si alguno falla no se inserta ninguno; un detalle que ya existe falla por llave duplicada.
+     */
+    public boolean insertAll(Collection<VentaProducto> ventaProductos) {
+        try (Connection conn = dbConnection.getConnection()) {
+            insertAll(conn, ventaProductos);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error al insertar productos en venta: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Inserta los detalles en lote usando la conexión (y transacción) del llamador
+     */
+    public void insertAll(Connection conn, Collection<VentaProducto> ventaProductos) throws SQLException {
+        InsercionPorLotes.insertarSinIds(conn, SQL_INSERT, ventaProductos,
+                VentaProductoDao::asignarParametrosInsert);
+    }
+
+    private static final String SQL_INSERT = "INSERT INTO ventaProducto (idVenta, idProducto, cantidad) " +
+            "VALUES (?, ?, ?)";
+
+    private static void asignarParametrosInsert(PreparedStatement stmt, VentaProducto ventaProducto)
+            throws SQLException {
+        stmt.setInt(1, ventaProducto.getIdVenta());
+        stmt.setInt(2, ventaProducto.getIdProducto());
+        stmt.setInt(3, ventaProducto.getCantidad());
+    }
+
     /**
      * Busca los productos de una venta específica
      */
@@ -55,12 +91,11 @@ public class VentaProductoDao {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    VentaProducto ventaProducto = mapResultSetToVentaProducto(rs);
-                    // Cargar información del producto
-                    ventaProducto.setProducto(productoDao.findById(ventaProducto.getIdProducto()));
-                    ventaProductos.add(ventaProducto);
+                    ventaProductos.add(mapResultSetToVentaProducto(rs));
                 }
             }
+            // Cargar información de los productos en una consulta por lote
+            cargarProductos(conn, ventaProductos, true);
         } catch (SQLException e) {
             System.err.println("Error al buscar productos de la venta: " + e.getMessage());
         }
@@ -81,17 +116,53 @@ public class VentaProductoDao {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    VentaProducto ventaProducto = mapResultSetToVentaProducto(rs);
-                    ventaProducto.setProducto(productoDao.findById(ventaProducto.getIdProducto()));
-                    ventaProductos.add(ventaProducto);
+                    ventaProductos.add(mapResultSetToVentaProducto(rs));
                 }
             }
+            cargarProductos(conn, ventaProductos, true);
         } catch (SQLException e) {
             System.err.println("Error al buscar ventas del producto: " + e.getMessage());
         }
         return ventaProductos;
     }
 
+    /**
+     * Obtiene una página de detalles de venta ordenada por (idVenta, idProducto).
+     * La clave del cursor es el idVenta y el ID es el idProducto de la última fila.
+     */
+    public Pagina<VentaProducto> findPage(CursorPagina despues, int tamano) {
+        int limite = Pagina.tamanoValido(tamano);
+        List<VentaProducto> ventaProductos = new ArrayList<>();
+        String sql = despues == null
+                ? "SELECT * FROM ventaProducto ORDER BY idVenta, idProducto LIMIT ?"
+                : "SELECT * FROM ventaProducto WHERE idVenta > ? OR (idVenta = ? AND idProducto > ?) " +
+                        "ORDER BY idVenta, idProducto LIMIT ?";
+
+        try (Connection conn = dbConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int i = 1;
+                if (despues != null) {
+                    stmt.setInt(i++, (Integer) despues.getClave());
+                    stmt.setInt(i++, (Integer) despues.getClave());
+                    stmt.setInt(i++, despues.getId());
+                }
+                stmt.setInt(i, limite + 1);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ventaProductos.add(mapResultSetToVentaProducto(rs));
+                    }
+                }
+            }
+            // La fila de más que indica si hay otra página también se hidrata; es un solo lote
+            cargarProductos(conn, ventaProductos, true);
+        } catch (SQLException e) {
+            System.err.println("Error al obtener página de detalles de venta: " + e.getMessage());
+        }
+
+        return Pagina.de(ventaProductos, limite, vp -> new CursorPagina(vp.getIdVenta(), vp.getIdProducto()));
+    }
+
     /**
      * Actualiza la cantidad de un producto en una venta
      */
@@ -169,10 +240,10 @@ public class VentaProductoDao {
                     VentaProducto ventaProducto = new VentaProducto();
                     ventaProducto.setIdProducto(rs.getInt("idProducto"));
                     ventaProducto.setCantidad(rs.getInt("totalVendido"));
-                    ventaProducto.setProducto(productoDao.findById(ventaProducto.getIdProducto()));
                     ventaProductos.add(ventaProducto);
                 }
             }
+            cargarProductos(conn, ventaProductos, true);
         } catch (SQLException e) {
             System.err.println("Error al obtener productos más vendidos: " + e.getMessage());
         }
@@ -201,6 +272,96 @@ public class VentaProductoDao {
         return 0;
     }
 
+    /**
+     * Obtiene los detalles de varias ventas con consultas por lote, agrupados por ID de venta.
+     * No carga los productos; ver {@link #cargarProductos(Connection, List, boolean)}.
+     */
+    Map<Integer, List<VentaProducto>> findByVentaIds(Connection conn, Collection<Integer> idsVenta)
+            throws SQLException {
+        Map<Integer, List<VentaProducto>> porVenta = new HashMap<>();
+        for (List<Integer> lote : SqlUtils.lotes(idsVenta)) {
+            String sql = "SELECT * FROM ventaProducto WHERE idVenta IN (" + SqlUtils.marcadores(lote.size()) + ")";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < lote.size(); i++) {
+                    stmt.setInt(i + 1, lote.get(i));
+                }
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        VentaProducto ventaProducto = mapResultSetToVentaProducto(rs);
+                        porVenta.computeIfAbsent(ventaProducto.getIdVenta(), k -> new ArrayList<>()).add(ventaProducto);
+                    }
+                }
+            }
+        }
+        return porVenta;
+    }
+
+    /**
+     * Asigna a cada detalle su producto usando una consulta por lote.
+     * Los detalles del mismo producto comparten la instancia de Producto.
+     */
+    void cargarProductos(Connection conn, List<VentaProducto> ventaProductos, boolean conCategorias)
+            throws SQLException {
+        if (ventaProductos.isEmpty()) {
+            return;
+        }
+
+        List<Integer> ids = new ArrayList<>(ventaProductos.size());
+        for (VentaProducto ventaProducto : ventaProductos) {
+            ids.add(ventaProducto.getIdProducto());
+        }
+
+        Map<Integer, Producto> productos = productoDao.findByIds(conn, ids, conCategorias);
+        for (VentaProducto ventaProducto : ventaProductos) {
+            ventaProducto.setProducto(productos.get(ventaProducto.getIdProducto()));
+        }
+    }
+
+    /**
+     * Recorre en streaming los detalles de las ventas del rango de fechas, ordenados por venta.
+     * Los detalles no traen el producto. El Stream mantiene ocupada una conexión
+     * hasta cerrarse, por lo que debe usarse con try-with-resources.
+     *
+     * @throws RuntimeException si la consulta falla al abrirse o durante la lectura
+     */
+    public Stream<VentaProducto> streamByFechaRange(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        try {
+            return LecturaSecuencial.abrir(dbConnection, SQL_DETALLES_POR_RANGO,
+                    stmt -> asignarRango(stmt, fechaInicio, fechaFin), this::mapResultSetToVentaProducto);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al abrir lectura de detalles de venta: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Entrega al consumidor cada detalle de las ventas del rango sin acumularlos en memoria.
+     * Los detalles no traen el producto.
+     *
+     * @return Número de detalles procesados
+     * @throws RuntimeException si la consulta falla
+     */
+    public long forEachByFechaRange(LocalDateTime fechaInicio, LocalDateTime fechaFin,
+            Consumer<VentaProducto> consumidor) {
+        try {
+            return LecturaSecuencial.recorrer(dbConnection, SQL_DETALLES_POR_RANGO,
+                    stmt -> asignarRango(stmt, fechaInicio, fechaFin), this::mapResultSetToVentaProducto,
+                    consumidor);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al recorrer detalles de venta: " + e.getMessage(), e);
+        }
+    }
+
+    private static final String SQL_DETALLES_POR_RANGO =
+            "SELECT vp.* FROM venta v INNER JOIN ventaProducto vp ON vp.idVenta = v.idVenta " +
+                    "WHERE v.fecha BETWEEN ? AND ? ORDER BY v.fecha, v.idVenta, vp.idProducto";
+
+    private static void asignarRango(PreparedStatement stmt, LocalDateTime fechaInicio, LocalDateTime fechaFin)
+            throws SQLException {
+        stmt.setTimestamp(1, Timestamp.valueOf(fechaInicio));
+        stmt.setTimestamp(2, Timestamp.valueOf(fechaFin));
+    }
+
     /**
      * Mapea un ResultSet a un objeto VentaProducto
      */
@@ -0,0 +1,108 @@
+package org.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Préstamo exclusivo de una {@link PooledConnection} a un hilo.
+ * Registra quién y cuándo adquirió la conexión para detectar fugas.
+ */
+class ConnectionLease implements InvocationHandler {
+    private final ConnectionPool pool;
+    private final PooledConnection conexion;
+    private final String hilo;
+    private final long adquiridaNanos;
+    private final Throwable origen;
+    private final AtomicBoolean devuelta = new AtomicBoolean();
+    private volatile boolean reportada;
+    private final Connection proxy;
+
+    ConnectionLease(ConnectionPool pool, PooledConnection conexion, boolean capturarOrigen) {
+        this.pool = pool;
+        this.conexion = conexion;
+        this.hilo = Thread.currentThread().toString();
+        this.adquiridaNanos = System.nanoTime();
+        // Capturar la pila solo cuando la detección de fugas está activa
+        this.origen = capturarOrigen ? new Throwable("Conexión adquirida por " + hilo) : null;
+        this.proxy = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                this);
+    }
+
+    Connection getProxy() {
+        return proxy;
+    }
+
+    PooledConnection getConexion() {
+        return conexion;
+    }
+
+    String getHilo() {
+        return hilo;
+    }
+
+    Throwable getOrigen() {
+        return origen;
+    }
+
+    long getDuracionNanos() {
+        return System.nanoTime() - adquiridaNanos;
+    }
+
+    boolean isReportada() {
+        return reportada;
+    }
+
+    void marcarReportada() {
+        reportada = true;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                if (devuelta.compareAndSet(false, true)) {
+                    pool.devolver(this);
+                }
+                return null;
+            case "isClosed":
+                return devuelta.get() || conexion.getFisica().isClosed();
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "ConnectionLease[" + hilo + (devuelta.get() ? ", devuelta" : "") + "]";
+            default:
+                break;
+        }
+
+        if (devuelta.get()) {
+            throw new SQLException("La conexión ya fue devuelta al pool");
+        }
+
+        StatementCache sentencias = conexion.getSentencias();
+        if (sentencias != null && "prepareStatement".equals(method.getName())) {
+            Class<?>[] tipos = method.getParameterTypes();
+            if (tipos.length == 1) {
+                return sentencias.preparar(this.proxy, (String) args[0], Statement.NO_GENERATED_KEYS);
+            }
+            if (tipos.length == 2 && tipos[1] == int.class) {
+                return sentencias.preparar(this.proxy, (String) args[0], (Integer) args[1]);
+            }
+        }
+
+        try {
+            return method.invoke(conexion.getFisica(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package org.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool acotado de conexiones a MariaDB.
+ * Mantiene entre pool.minSize y pool.maxSize conexiones físicas, valida al
+ * prestar, retira las ociosas y las que superan su tiempo de vida máximo.
+ * Cada préstamo es exclusivo de un hilo; los préstamos retenidos más de
+ * pool.leakDetectionThresholdMs se reportan con la pila de quien los adquirió.
+ */
+public class ConnectionPool {
+    // Una conexión usada hace menos de este tiempo no se vuelve a validar
+    private static final long VALIDACION_OMITIDA_MS = 500;
+
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final long maxLifetimeMs;
+    private final long connectionTimeoutMs;
+    private final boolean validateOnBorrow;
+    private final int validationTimeoutSec;
+    private final long leakDetectionThresholdMs;
+    private final int statementCacheSize;
+    private final StatementCache.Contadores contadoresSentencias = new StatementCache.Contadores();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition disponible = lock.newCondition();
+    private final Deque<PooledConnection> libres = new ArrayDeque<>();
+    private final Set<ConnectionLease> prestamos = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService mantenimiento;
+
+    // Protegidos por lock
+    private int total;
+    private int activas;
+    private int esperando;
+    private boolean cerrado;
+    private long adquisiciones;
+    private long timeouts;
+    private long creadas;
+    private long descartadas;
+    private long esperaTotalNanos;
+    private long esperaMaximaNanos;
+    private int activasMaximo;
+    private long devoluciones;
+    private long retencionTotalNanos;
+    private long retencionMaximaNanos;
+    private long fugasDetectadas;
+
+    public ConnectionPool(String url, String username, String password, Properties config) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+
+        this.maxSize = Math.max(1, intProperty(config, "pool.maxSize", 10));
+        this.minSize = Math.min(maxSize, Math.max(0, intProperty(config, "pool.minSize", 2)));
+        this.idleTimeoutMs = longProperty(config, "pool.idleTimeoutMs", 600_000);
+        this.maxLifetimeMs = longProperty(config, "pool.maxLifetimeMs", 1_800_000);
+        this.connectionTimeoutMs = longProperty(config, "pool.connectionTimeoutMs", 30_000);
+        this.validateOnBorrow = Boolean.parseBoolean(config.getProperty("pool.validateOnBorrow", "true"));
+        this.validationTimeoutSec = intProperty(config, "pool.validationTimeoutSec", 5);
+        this.leakDetectionThresholdMs = longProperty(config, "pool.leakDetectionThresholdMs", 0);
+        this.statementCacheSize = Math.max(0, intProperty(config, "pool.statementCacheSize", 64));
+
+        this.mantenimiento = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "cobra-te-pool-mantenimiento");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        long periodo = Math.max(1_000, Math.min(30_000, idleTimeoutMs / 2));
+        mantenimiento.scheduleWithFixedDelay(this::mantener, periodo, periodo, TimeUnit.MILLISECONDS);
+
+        if (leakDetectionThresholdMs > 0) {
+            long revision = Math.max(500, leakDetectionThresholdMs / 2);
+            mantenimiento.scheduleWithFixedDelay(this::detectarFugas, revision, revision, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Presta una conexión del pool. Cerrar la conexión obtenida la devuelve al pool.
+     */
+    public Connection getConnection() throws SQLException {
+        long inicio = System.nanoTime();
+        long limite = inicio + TimeUnit.MILLISECONDS.toNanos(connectionTimeoutMs);
+
+        while (true) {
+            PooledConnection candidata = null;
+            boolean crear = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (cerrado) {
+                        throw new SQLException("El pool de conexiones está cerrado");
+                    }
+                    candidata = libres.pollFirst();
+                    if (candidata != null) {
+                        break;
+                    }
+                    if (total < maxSize) {
+                        total++;
+                        crear = true;
+                        break;
+                    }
+                    long restante = limite - System.nanoTime();
+                    if (restante <= 0) {
+                        timeouts++;
+                        throw new SQLTimeoutException("Tiempo agotado esperando una conexión del pool ("
+                                + connectionTimeoutMs + " ms, " + activas + " activas)");
+                    }
+                    esperando++;
+                    try {
+                        disponible.awaitNanos(restante);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrumpido mientras se esperaba una conexión", e);
+                    } finally {
+                        esperando--;
+                    }
+                }
+                activas++;
+                activasMaximo = Math.max(activasMaximo, activas);
+            } finally {
+                lock.unlock();
+            }
+
+            // La red se toca fuera del candado para no bloquear a los demás hilos
+            if (crear) {
+                try {
+                    candidata = nuevaConexion();
+                } catch (SQLException e) {
+                    liberarLugar(null);
+                    throw e;
+                }
+            } else if (!esUtilizable(candidata)) {
+                liberarLugar(candidata);
+                continue;
+            }
+
+            registrarEspera(System.nanoTime() - inicio);
+            ConnectionLease prestamo = new ConnectionLease(this, candidata, leakDetectionThresholdMs > 0);
+            prestamos.add(prestamo);
+            return prestamo.getProxy();
+        }
+    }
+
+    /**
+     * Devuelve una conexión prestada al pool (invocado por el proxy al cerrar)
+     */
+    void devolver(ConnectionLease prestamo) {
+        PooledConnection conexion = prestamo.getConexion();
+        long retencion = prestamo.getDuracionNanos();
+        prestamos.remove(prestamo);
+        if (prestamo.isReportada()) {
+            System.err.println("Conexión reportada como fuga devuelta tras "
+                    + TimeUnit.NANOSECONDS.toMillis(retencion) + " ms por " + prestamo.getHilo());
+        }
+
+        if (conexion.getSentencias() != null) {
+            conexion.getSentencias().liberarPrestamo();
+        }
+        boolean sana = restablecer(conexion);
+        boolean descartar;
+
+        lock.lock();
+        try {
+            activas--;
+            devoluciones++;
+            retencionTotalNanos += retencion;
+            retencionMaximaNanos = Math.max(retencionMaximaNanos, retencion);
+            descartar = !sana || cerrado || conexion.expirada(maxLifetimeMs, System.currentTimeMillis());
+            if (descartar) {
+                total--;
+                descartadas++;
+            } else {
+                conexion.marcarUso();
+                libres.addFirst(conexion);
+            }
+            disponible.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        if (descartar) {
+            conexion.cerrarFisica();
+        }
+    }
+
+    /**
+     * Obtiene una instantánea de las estadísticas del pool
+     */
+    public PoolStatistics getStatistics() {
+        lock.lock();
+        try {
+            double promedio = adquisiciones == 0 ? 0 : esperaTotalNanos / (double) adquisiciones / 1_000_000.0;
+            double retencionPromedio = devoluciones == 0 ? 0
+                    : retencionTotalNanos / (double) devoluciones / 1_000_000.0;
+            return new PoolStatistics(activas, libres.size(), esperando, maxSize, adquisiciones, timeouts,
+                    creadas, descartadas, promedio, esperaMaximaNanos / 1_000_000.0,
+                    activasMaximo, retencionPromedio, retencionMaximaNanos / 1_000_000.0, fugasDetectadas,
+                    contadoresSentencias.aciertos.sum(), contadoresSentencias.fallos.sum(),
+                    contadoresSentencias.desalojos.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cierra el pool. Las conexiones prestadas se cierran al devolverse.
+     */
+    public void close() {
+        List<PooledConnection> aCerrar;
+        lock.lock();
+        try {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            aCerrar = new ArrayList<>(libres);
+            total -= libres.size();
+            libres.clear();
+            disponible.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        mantenimiento.shutdownNow();
+        aCerrar.forEach(PooledConnection::cerrarFisica);
+    }
+
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return cerrado;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reporta los préstamos retenidos más allá del umbral configurado
+     */
+    private void detectarFugas() {
+        long umbralNanos = TimeUnit.MILLISECONDS.toNanos(leakDetectionThresholdMs);
+        for (ConnectionLease prestamo : prestamos) {
+            long duracion = prestamo.getDuracionNanos();
+            if (duracion >= umbralNanos && !prestamo.isReportada()) {
+                prestamo.marcarReportada();
+                lock.lock();
+                try {
+                    fugasDetectadas++;
+                } finally {
+                    lock.unlock();
+                }
+                System.err.println("⚠️ Posible fuga de conexión: retenida "
+                        + TimeUnit.NANOSECONDS.toMillis(duracion) + " ms por " + prestamo.getHilo());
+                if (prestamo.getOrigen() != null) {
+                    prestamo.getOrigen().printStackTrace();
+                }
+            }
+        }
+    }
+
+    private PooledConnection nuevaConexion() throws SQLException {
+        return new PooledConnection(abrirConexionFisica(), statementCacheSize, contadoresSentencias);
+    }
+
+    private Connection abrirConexionFisica() throws SQLException {
+        Connection conexion = DriverManager.getConnection(url, username, password);
+        lock.lock();
+        try {
+            creadas++;
+        } finally {
+            lock.unlock();
+        }
+        return conexion;
+    }
+
+    /**
+     * Verifica tiempo de vida y, si corresponde, valida la conexión antes de prestarla
+     */
+    private boolean esUtilizable(PooledConnection conexion) {
+        long ahora = System.currentTimeMillis();
+        if (conexion.expirada(maxLifetimeMs, ahora)) {
+            return false;
+        }
+        if (!validateOnBorrow || ahora - conexion.getUltimoUso() < VALIDACION_OMITIDA_MS) {
+            return true;
+        }
+        try {
+            return conexion.getFisica().isValid(validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Deja la conexión lista para el siguiente préstamo
+     */
+    private boolean restablecer(PooledConnection conexion) {
+        try {
+            Connection fisica = conexion.getFisica();
+            if (fisica.isClosed()) {
+                return false;
+            }
+            if (!fisica.getAutoCommit()) {
+                fisica.rollback();
+                fisica.setAutoCommit(true);
+            }
+            if (fisica.isReadOnly()) {
+                fisica.setReadOnly(false);
+            }
+            fisica.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Conexión descartada al devolverse al pool: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Libera el lugar de una conexión que no llegó a prestarse
+     */
+    private void liberarLugar(PooledConnection conexion) {
+        lock.lock();
+        try {
+            total--;
+            activas--;
+            if (conexion != null) {
+                descartadas++;
+            }
+            disponible.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (conexion != null) {
+            conexion.cerrarFisica();
+        }
+    }
+
+    private void registrarEspera(long nanos) {
+        lock.lock();
+        try {
+            adquisiciones++;
+            esperaTotalNanos += nanos;
+            esperaMaximaNanos = Math.max(esperaMaximaNanos, nanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tarea periódica: retira conexiones ociosas o vencidas y repone el mínimo
+     */
+    private void mantener() {
+        List<PooledConnection> aCerrar = new ArrayList<>();
+        int faltantes;
+
+        lock.lock();
+        try {
+            if (cerrado) {
+                return;
+            }
+            long ahora = System.currentTimeMillis();
+            // Las más antiguas en uso quedan al final de la cola
+            Iterator<PooledConnection> it = libres.descendingIterator();
+            while (it.hasNext()) {
+                PooledConnection conexion = it.next();
+                boolean ociosa = idleTimeoutMs > 0 && ahora - conexion.getUltimoUso() >= idleTimeoutMs
+                        && total > minSize;
+                if (ociosa || conexion.expirada(maxLifetimeMs, ahora)) {
+                    it.remove();
+                    total--;
+                    descartadas++;
+                    aCerrar.add(conexion);
+                }
+            }
+            faltantes = Math.max(0, minSize - total);
+            total += faltantes;
+        } finally {
+            lock.unlock();
+        }
+
+        aCerrar.forEach(PooledConnection::cerrarFisica);
+
+        for (int i = 0; i < faltantes; i++) {
+            try {
+                PooledConnection nueva = nuevaConexion();
+                lock.lock();
+                try {
+                    if (cerrado) {
+                        total--;
+                        nueva.cerrarFisica();
+                    } else {
+                        libres.addLast(nueva);
+                        disponible.signal();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            } catch (SQLException e) {
+                lock.lock();
+                try {
+                    total -= faltantes - i;
+                } finally {
+                    lock.unlock();
+                }
+                System.err.println("No se pudo reponer el mínimo de conexiones del pool: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private static int intProperty(Properties config, String clave, int porDefecto) {
+        try {
+            return Integer.parseInt(config.getProperty(clave, String.valueOf(porDefecto)).trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Valor inválido para " + clave + ", usando " + porDefecto);
+            return porDefecto;
+        }
+    }
+
+    private static long longProperty(Properties config, String clave, long porDefecto) {
+        try {
+            return Long.parseLong(config.getProperty(clave, String.valueOf(porDefecto)).trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Valor inválido para " + clave + ", usando " + porDefecto);
+            return porDefecto;
+        }
+    }
+}
@@ -1,19 +1,20 @@
 package org.database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 import java.io.InputStream;
 import java.io.IOException;
 
 /**
- * Clase para manejar la conexión a la base de datos MariaDB
+ * Clase para manejar la conexión a la base de datos MariaDB.
+ * Las conexiones se prestan desde un {@link ConnectionPool}; cerrarlas las devuelve al pool.
  */
 public class DatabaseConnection {
     private static final String CONFIG_FILE = "/database.properties";
     private static DatabaseConnection instance;
-    private Connection connection;
+    private final Properties config = new Properties();
+    private volatile ConnectionPool pool;
 
     // Configuración por defecto
     private String url = "jdbc:mariadb://localhost:3306/cobra_te";
@@ -40,17 +41,17 @@ public class DatabaseConnection {
     }
 
     /**
-     * Carga la configuración desde el archivo properties
+     * Carga la configuración desde el archivo properties. Las opciones del driver se agregan
+     * a la URL aunque el archivo falte, con sus valores por defecto
      */
     private void loadConfiguration() {
         try (InputStream input = getClass().getResourceAsStream(CONFIG_FILE)) {
             if (input != null) {
-                Properties prop = new Properties();
-                prop.load(input);
+                config.load(input);
 
-                url = prop.getProperty("database.url", url);
-                username = prop.getProperty("database.username", username);
-                password = prop.getProperty("database.password", password);
+                url = config.getProperty("database.url", url);
+                username = config.getProperty("database.username", username);
+                password = config.getProperty("database.password", password);
 
                 // Debug: verificar que se cargó la configuración
                 System.out.println("Configuración cargada:");
@@ -64,28 +65,59 @@ public class DatabaseConnection {
             System.err.println("❌ Error al cargar configuración: " + e.getMessage());
             System.out.println("Usando valores por defecto");
         }
+
+        // Preparación en el servidor: cada conexión analiza cada SQL una sola vez
+        if (Boolean.parseBoolean(config.getProperty("database.serverPrepare", "true"))) {
+            url = agregarOpcionUrl(url, "useServerPrepStmts", "true");
+        }
+
+        // Lotes JDBC en un solo viaje (protocolo bulk de MariaDB)
+        if (Boolean.parseBoolean(config.getProperty("database.bulkStatements", "true"))) {
+            url = agregarOpcionUrl(url, "useBulkStmts", "true");
+        }
     }
 
     /**
-     * Obtiene una conexión a la base de datos
+     * Agrega una opción del driver a la URL JDBC si no está ya presente
      */
-    public Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(url, username, password);
+    private static String agregarOpcionUrl(String url, String opcion, String valor) {
+        if (url.contains(opcion + "=")) {
+            return url;
         }
-        return connection;
+        return url + (url.contains("?") ? "&" : "?") + opcion + "=" + valor;
     }
 
     /**
-     * Cierra la conexión a la base de datos
+     * Obtiene una conexión del pool. Debe cerrarse (try-with-resources) para devolverla.
      */
-    public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+    public Connection getConnection() throws SQLException {
+        return getPool().getConnection();
+    }
+
+    /**
+     * Obtiene el pool, creándolo en el primer uso
+     */
+    private ConnectionPool getPool() {
+        ConnectionPool actual = pool;
+        if (actual == null) {
+            synchronized (this) {
+                actual = pool;
+                if (actual == null) {
+                    actual = new ConnectionPool(url, username, password, config);
+                    pool = actual;
+                }
             }
-        } catch (SQLException e) {
-            System.err.println("Error al cerrar la conexión: " + e.getMessage());
+        }
+        return actual;
+    }
+
+    /**
+     * Cierra el pool y todas sus conexiones a la base de datos
+     */
+    public synchronized void closeConnection() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
         }
     }
 
@@ -93,20 +125,27 @@ public class DatabaseConnection {
      * Verifica si la conexión está activa
      */
     public boolean isConnected() {
-        try {
-            return connection != null && !connection.isClosed() && connection.isValid(5);
+        try (Connection conn = getConnection()) {
+            return conn.isValid(5);
         } catch (SQLException e) {
             return false;
         }
     }
 
+    /**
+     * Obtiene las estadísticas actuales del pool (activas, libres, tiempos de espera)
+     */
+    public PoolStatistics getPoolStatistics() {
+        return getPool().getStatistics();
+    }
+
     /**
      * Configura manualmente los parámetros de conexión
      */
-    public void setConnectionParameters(String url, String username, String password) {
+    public synchronized void setConnectionParameters(String url, String username, String password) {
         this.url = url;
         this.username = username;
         this.password = password;
-        closeConnection(); // Cerrar conexión actual para forzar nueva conexión
+        closeConnection(); // Cerrar el pool actual para forzar nuevas conexiones
     }
 }
@@ -0,0 +1,151 @@
+package org.database;
+
+/**
+ * Instantánea de las estadísticas del pool de conexiones
+ */
+public class PoolStatistics {
+    private final int activas;
+    private final int libres;
+    private final int esperando;
+    private final int tamanoMaximo;
+    private final long adquisiciones;
+    private final long timeouts;
+    private final long conexionesCreadas;
+    private final long conexionesDescartadas;
+    private final double esperaPromedioMs;
+    private final double esperaMaximaMs;
+    private final int activasMaximo;
+    private final double retencionPromedioMs;
+    private final double retencionMaximaMs;
+    private final long fugasDetectadas;
+    private final long sentenciasAciertos;
+    private final long sentenciasFallos;
+    private final long sentenciasDesalojadas;
+
+    PoolStatistics(int activas, int libres, int esperando, int tamanoMaximo, long adquisiciones,
+            long timeouts, long conexionesCreadas, long conexionesDescartadas,
+            double esperaPromedioMs, double esperaMaximaMs, int activasMaximo,
+            double retencionPromedioMs, double retencionMaximaMs, long fugasDetectadas,
+            long sentenciasAciertos, long sentenciasFallos, long sentenciasDesalojadas) {
+        this.activas = activas;
+        this.libres = libres;
+        this.esperando = esperando;
+        this.tamanoMaximo = tamanoMaximo;
+        this.adquisiciones = adquisiciones;
+        this.timeouts = timeouts;
+        this.conexionesCreadas = conexionesCreadas;
+        this.conexionesDescartadas = conexionesDescartadas;
+        this.esperaPromedioMs = esperaPromedioMs;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.activasMaximo = activasMaximo;
+        this.retencionPromedioMs = retencionPromedioMs;
+        this.retencionMaximaMs = retencionMaximaMs;
+        this.fugasDetectadas = fugasDetectadas;
+        this.sentenciasAciertos = sentenciasAciertos;
+        this.sentenciasFallos = sentenciasFallos;
+        this.sentenciasDesalojadas = sentenciasDesalojadas;
+    }
+
+    public int getActivas() {
+        return activas;
+    }
+
+    public int getLibres() {
+        return libres;
+    }
+
+    public int getTotal() {
+        return activas + libres;
+    }
+
+    public int getEsperando() {
+        return esperando;
+    }
+
+    public int getTamanoMaximo() {
+        return tamanoMaximo;
+    }
+
+    public long getAdquisiciones() {
+        return adquisiciones;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getConexionesCreadas() {
+        return conexionesCreadas;
+    }
+
+    public long getConexionesDescartadas() {
+        return conexionesDescartadas;
+    }
+
+    public double getEsperaPromedioMs() {
+        return esperaPromedioMs;
+    }
+
+    public double getEsperaMaximaMs() {
+        return esperaMaximaMs;
+    }
+
+    /**
+     * Máximo de conexiones prestadas simultáneamente desde que se creó el pool
+     */
+    public int getActivasMaximo() {
+        return activasMaximo;
+    }
+
+    public double getRetencionPromedioMs() {
+        return retencionPromedioMs;
+    }
+
+    public double getRetencionMaximaMs() {
+        return retencionMaximaMs;
+    }
+
+    public long getFugasDetectadas() {
+        return fugasDetectadas;
+    }
+
+    /**
+     * Sentencias preparadas reutilizadas desde la caché
+     */
+    public long getSentenciasAciertos() {
+        return sentenciasAciertos;
+    }
+
+    /**
+     * Sentencias que tuvieron que prepararse de nuevo
+     */
+    public long getSentenciasFallos() {
+        return sentenciasFallos;
+    }
+
+    public long getSentenciasDesalojadas() {
+        return sentenciasDesalojadas;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStatistics{" +
+                "activas=" + activas +
+                ", libres=" + libres +
+                ", esperando=" + esperando +
+                ", tamanoMaximo=" + tamanoMaximo +
+                ", adquisiciones=" + adquisiciones +
+                ", timeouts=" + timeouts +
+                ", creadas=" + conexionesCreadas +
+                ", descartadas=" + conexionesDescartadas +
+                String.format(", esperaPromedioMs=%.3f, esperaMaximaMs=%.3f", esperaPromedioMs, esperaMaximaMs) +
+                ", activasMaximo=" + activasMaximo +
+                String.format(", retencionPromedioMs=%.3f, retencionMaximaMs=%.3f", retencionPromedioMs,
+                        retencionMaximaMs) +
+                ", fugasDetectadas=" + fugasDetectadas +
+                ", sentenciasAciertos=" + sentenciasAciertos +
+                ", sentenciasFallos=" + sentenciasFallos +
+                ", sentenciasDesalojadas=" + sentenciasDesalojadas +
+                '}';
+    }
+}
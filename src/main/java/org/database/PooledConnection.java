@@ -0,0 +1,69 @@
+package org.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Conexión física administrada por el {@link ConnectionPool}.
+ * Cada préstamo ({@link ConnectionLease}) entrega un proxy cuyo close() devuelve
+ * la conexión al pool en lugar de cerrar el socket con MariaDB.
+ */
+class PooledConnection {
+    private final Connection fisica;
+    private final StatementCache sentencias;
+    private final long creadaEn;
+    private volatile long ultimoUso;
+
+    PooledConnection(Connection fisica, int tamanoCacheSentencias, StatementCache.Contadores contadores) {
+        this.fisica = fisica;
+        this.sentencias = tamanoCacheSentencias > 0
+                ? new StatementCache(fisica, tamanoCacheSentencias, contadores)
+                : null;
+        this.creadaEn = System.currentTimeMillis();
+        this.ultimoUso = creadaEn;
+    }
+
+    Connection getFisica() {
+        return fisica;
+    }
+
+    /**
+     * Caché de sentencias de esta conexión, o null si está desactivada
+     */
+    StatementCache getSentencias() {
+        return sentencias;
+    }
+
+    long getCreadaEn() {
+        return creadaEn;
+    }
+
+    long getUltimoUso() {
+        return ultimoUso;
+    }
+
+    void marcarUso() {
+        ultimoUso = System.currentTimeMillis();
+    }
+
+    /**
+     * Verifica si la conexión superó su tiempo de vida máximo
+     */
+    boolean expirada(long maxLifetimeMs, long ahora) {
+        return maxLifetimeMs > 0 && ahora - creadaEn >= maxLifetimeMs;
+    }
+
+    /**
+     * Cierra la conexión física ignorando errores
+     */
+    void cerrarFisica() {
+        if (sentencias != null) {
+            sentencias.cerrar();
+        }
+        try {
+            fisica.close();
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar conexión física: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché LRU de PreparedStatement por conexión física, indexada por el texto SQL.
+ * Los DAOs siguen cerrando sus sentencias con try-with-resources: el close()
+ * lógico deja la sentencia preparada en la caché para el siguiente préstamo.
+ */
+class StatementCache {
+    private final Connection fisica;
+    private final int capacidad;
+    private final Contadores contadores;
+    private final Map<String, Entrada> entradas;
+    // Sentencias no cacheadas prestadas en este momento; se cierran al devolverse
+    private final List<Entrada> sueltas = new ArrayList<>();
+
+    StatementCache(Connection fisica, int capacidad, Contadores contadores) {
+        this.fisica = fisica;
+        this.capacidad = capacidad;
+        this.contadores = contadores;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                if (size() <= StatementCache.this.capacidad) {
+                    return false;
+                }
+                contadores.desalojos.increment();
+                eldest.getValue().desalojar();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Obtiene una sentencia preparada para el SQL indicado, reutilizándola si ya existe
+     *
+     * @param conexionLogica La conexión que devolverá getConnection() de la sentencia
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS o Statement.NO_GENERATED_KEYS
+     */
+    synchronized PreparedStatement preparar(Connection conexionLogica, String sql, int autoGeneratedKeys)
+            throws SQLException {
+        String clave = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : "N:" + sql;
+        Entrada entrada = entradas.get(clave);
+
+        if (entrada != null && entrada.actual == null) {
+            contadores.aciertos.increment();
+        } else if (entrada == null) {
+            contadores.fallos.increment();
+            entrada = new Entrada(fisica.prepareStatement(sql, autoGeneratedKeys));
+            entradas.put(clave, entrada);
+        } else {
+            // La misma sentencia ya está abierta en este préstamo: se usa una no cacheada, con la misma
+            // vista lógica para que getConnection() no exponga la conexión física
+            contadores.fallos.increment();
+            Entrada suelta = new Entrada(fisica.prepareStatement(sql, autoGeneratedKeys));
+            suelta.desalojada = true;
+            sueltas.add(suelta);
+            return suelta.prestar(conexionLogica);
+        }
+
+        return entrada.prestar(conexionLogica);
+    }
+
+    /**
+     * Libera las sentencias que el préstamo anterior dejó sin cerrar
+     */
+    synchronized void liberarPrestamo() {
+        List<Entrada> prestadas = new ArrayList<>(entradas.values());
+        prestadas.addAll(sueltas);
+        for (Entrada entrada : prestadas) {
+            if (entrada.actual != null) {
+                entrada.devolver(entrada.actual);
+            }
+        }
+    }
+
+    /**
+     * Cierra todas las sentencias cacheadas
+     */
+    synchronized void cerrar() {
+        List<Entrada> todas = new ArrayList<>(entradas.values());
+        todas.addAll(sueltas);
+        entradas.clear();
+        sueltas.clear();
+        for (Entrada entrada : todas) {
+            entrada.cerrarFisica();
+        }
+    }
+
+    /**
+     * Contadores compartidos por todas las cachés de un pool
+     */
+    static class Contadores {
+        final LongAdder aciertos = new LongAdder();
+        final LongAdder fallos = new LongAdder();
+        final LongAdder desalojos = new LongAdder();
+    }
+
+    /**
+     * Sentencia física cacheada, o suelta si se creó porque la cacheada estaba ocupada
+     */
+    private class Entrada {
+        private final PreparedStatement sentencia;
+        // Vista lógica que tiene la sentencia en este momento (null si está libre)
+        private SentenciaLogica actual;
+        private boolean desalojada;
+
+        Entrada(PreparedStatement sentencia) {
+            this.sentencia = sentencia;
+        }
+
+        PreparedStatement prestar(Connection conexionLogica) {
+            actual = new SentenciaLogica(this, conexionLogica);
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    actual);
+        }
+
+        void devolver(SentenciaLogica logica) {
+            synchronized (StatementCache.this) {
+                if (actual != logica) {
+                    return;
+                }
+                logica.cerrada = true;
+                actual = null;
+                if (desalojada) {
+                    sueltas.remove(this);
+                    cerrarFisica();
+                    return;
+                }
+            }
+            try {
+                sentencia.clearParameters();
+                sentencia.clearBatch();
+            } catch (SQLException e) {
+                synchronized (StatementCache.this) {
+                    entradas.values().remove(this);
+                }
+                cerrarFisica();
+            }
+        }
+
+        void desalojar() {
+            desalojada = true;
+            if (actual == null) {
+                cerrarFisica();
+            }
+        }
+
+        void cerrarFisica() {
+            try {
+                sentencia.close();
+            } catch (SQLException e) {
+                System.err.println("Error al cerrar sentencia cacheada: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Vista lógica de una sentencia cacheada durante un préstamo
+     */
+    private static class SentenciaLogica implements InvocationHandler {
+        private final Entrada entrada;
+        private final Connection conexionLogica;
+        private volatile boolean cerrada;
+
+        SentenciaLogica(Entrada entrada, Connection conexionLogica) {
+            this.entrada = entrada;
+            this.conexionLogica = conexionLogica;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    entrada.devolver(this);
+                    return null;
+                case "isClosed":
+                    return cerrada || entrada.sentencia.isClosed();
+                case "getConnection":
+                    return conexionLogica;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            if (cerrada) {
+                throw new SQLException("La sentencia ya fue cerrada");
+            }
+
+            try {
+                return method.invoke(entrada.sentencia, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.models;
+
+/**
+ * Entrada del registro de cambios: una fila de catálogo o de usuario que se escribió con cierta versión
+ */
+public class CambioCatalogo {
+    private final long version;
+    private final String entidad;
+    private final int idEntidad;
+    private final long antiguedadMs;
+
+    public CambioCatalogo(long version, String entidad, int idEntidad, long antiguedadMs) {
+        this.version = version;
+        this.entidad = entidad;
+        this.idEntidad = idEntidad;
+        this.antiguedadMs = antiguedadMs;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Tipo de fila cambiada: producto, categoria o usuario
+     */
+    public String getEntidad() {
+        return entidad;
+    }
+
+    public int getIdEntidad() {
+        return idEntidad;
+    }
+
+    /**
+     * Tiempo transcurrido desde el cambio según el reloj de la base de datos, en milisegundos
+     */
+    public long getAntiguedadMs() {
+        return antiguedadMs;
+    }
+
+    @Override
+    public String toString() {
+        return "CambioCatalogo{" +
+                "version=" + version +
+                ", entidad='" + entidad + '\'' +
+                ", idEntidad=" + idEntidad +
+                ", antiguedadMs=" + antiguedadMs +
+                '}';
+    }
+}
@@ -12,6 +12,7 @@ public class Producto {
     private String descripcion;
     private String tamano;
     private BigDecimal precio;
+    private String codigo;
     private List<Categoria> categorias;
 
     // Constructor vacío
@@ -67,6 +68,17 @@ public class Producto {
         this.precio = precio;
     }
 
+    /**
+     * Código de barras o SKU, único entre productos; null si el producto no tiene
+     */
+    public String getCodigo() {
+        return codigo;
+    }
+
+    public void setCodigo(String codigo) {
+        this.codigo = codigo;
+    }
+
     public List<Categoria> getCategorias() {
         return categorias;
     }
@@ -83,6 +95,7 @@ public class Producto {
                 ", descripcion='" + descripcion + '\'' +
                 ", tamano='" + tamano + '\'' +
                 ", precio=" + precio +
+                ", codigo='" + codigo + '\'' +
                 '}';
     }
 }
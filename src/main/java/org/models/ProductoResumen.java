@@ -0,0 +1,56 @@
+package org.models;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección de solo lectura de un producto con sus categorías en texto
+ */
+public class ProductoResumen {
+    private final Integer idProducto;
+    private final String nombre;
+    private final String tamano;
+    private final BigDecimal precio;
+    private final String categorias;
+
+    public ProductoResumen(Integer idProducto, String nombre, String tamano, BigDecimal precio, String categorias) {
+        this.idProducto = idProducto;
+        this.nombre = nombre;
+        this.tamano = tamano;
+        this.precio = precio;
+        this.categorias = categorias;
+    }
+
+    public Integer getIdProducto() {
+        return idProducto;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getTamano() {
+        return tamano;
+    }
+
+    public BigDecimal getPrecio() {
+        return precio;
+    }
+
+    /**
+     * Nombres de las categorías separados por coma, o cadena vacía si no tiene
+     */
+    public String getCategorias() {
+        return categorias;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductoResumen{" +
+                "idProducto=" + idProducto +
+                ", nombre='" + nombre + '\'' +
+                ", tamano='" + tamano + '\'' +
+                ", precio=" + precio +
+                ", categorias='" + categorias + '\'' +
+                '}';
+    }
+}
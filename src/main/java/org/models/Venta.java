@@ -5,7 +5,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 /**
- * Clase modelo para la entidad Venta
+ * Clase modelo para la entidad Venta.
+ * El usuario y los productos pueden cargarse de forma diferida en el primer acceso.
  */
 public class Venta {
     private Integer idVenta;
@@ -14,6 +15,8 @@ public class Venta {
     private BigDecimal total;
     private Usuario usuario;
     private List<VentaProducto> productos;
+    private Runnable cargadorUsuario;
+    private Runnable cargadorProductos;
 
     // Constructor vacío
     public Venta() {
@@ -60,19 +63,51 @@ public class Venta {
     }
 
     public Usuario getUsuario() {
+        Runnable cargador = cargadorUsuario;
+        if (cargador != null) {
+            cargador.run();
+        }
         return usuario;
     }
 
     public void setUsuario(Usuario usuario) {
         this.usuario = usuario;
+        this.cargadorUsuario = null;
     }
 
     public List<VentaProducto> getProductos() {
+        Runnable cargador = cargadorProductos;
+        if (cargador != null) {
+            cargador.run();
+        }
         return productos;
     }
 
     public void setProductos(List<VentaProducto> productos) {
         this.productos = productos;
+        this.cargadorProductos = null;
+    }
+
+    /**
+     * Define cómo cargar el usuario en el primer acceso a {@link #getUsuario()}
+     */
+    public void setCargadorUsuario(Runnable cargadorUsuario) {
+        this.cargadorUsuario = cargadorUsuario;
+    }
+
+    /**
+     * Define cómo cargar los productos en el primer acceso a {@link #getProductos()}
+     */
+    public void setCargadorProductos(Runnable cargadorProductos) {
+        this.cargadorProductos = cargadorProductos;
+    }
+
+    public boolean isUsuarioCargado() {
+        return cargadorUsuario == null;
+    }
+
+    public boolean isProductosCargados() {
+        return cargadorProductos == null;
     }
 
     @Override
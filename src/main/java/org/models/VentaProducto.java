@@ -1,13 +1,15 @@
 package org.models;
 
 /**
- * Clase modelo para la entidad VentaProducto (tabla de relación)
+ * Clase modelo para la entidad VentaProducto (tabla de relación).
+ * El producto puede cargarse de forma diferida en el primer acceso.
  */
 public class VentaProducto {
     private Integer idVenta;
     private Integer idProducto;
     private Integer cantidad;
     private Producto producto;
+    private Runnable cargadorProducto;
 
     // Constructor vacío
     public VentaProducto() {
@@ -46,11 +48,27 @@ public class VentaProducto {
     }
 
     public Producto getProducto() {
+        Runnable cargador = cargadorProducto;
+        if (cargador != null) {
+            cargador.run();
+        }
         return producto;
     }
 
     public void setProducto(Producto producto) {
         this.producto = producto;
+        this.cargadorProducto = null;
+    }
+
+    /**
+     * Define cómo cargar el producto en el primer acceso a {@link #getProducto()}
+     */
+    public void setCargadorProducto(Runnable cargadorProducto) {
+        this.cargadorProducto = cargadorProducto;
+    }
+
+    public boolean isProductoCargado() {
+        return cargadorProducto == null;
     }
 
     @Override
@@ -0,0 +1,54 @@
+package org.models;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de solo lectura de una venta para listados e historiales
+ */
+public class VentaResumen {
+    private final Integer idVenta;
+    private final LocalDateTime fecha;
+    private final BigDecimal total;
+    private final String cajero;
+    private final int numeroLineas;
+
+    public VentaResumen(Integer idVenta, LocalDateTime fecha, BigDecimal total, String cajero, int numeroLineas) {
+        this.idVenta = idVenta;
+        this.fecha = fecha;
+        this.total = total;
+        this.cajero = cajero;
+        this.numeroLineas = numeroLineas;
+    }
+
+    public Integer getIdVenta() {
+        return idVenta;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public String getCajero() {
+        return cajero;
+    }
+
+    public int getNumeroLineas() {
+        return numeroLineas;
+    }
+
+    @Override
+    public String toString() {
+        return "VentaResumen{" +
+                "idVenta=" + idVenta +
+                ", fecha=" + fecha +
+                ", total=" + total +
+                ", cajero='" + cajero + '\'' +
+                ", numeroLineas=" + numeroLineas +
+                '}';
+    }
+}
@@ -0,0 +1,174 @@
+package org.search;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Ejecuta las consultas de un cuadro de búsqueda fuera del hilo de la interfaz.
+ *
+ * Cada tecla reprograma la consulta tras una espera corta (-Dcobra.busqueda.esperaMs, 150 por defecto),
+ * así escribir "cafe" hace una consulta y no cuatro. Solo corre una consulta a la vez por cuadro: si
+ * llega otra mientras tanto, queda como siguiente y reemplaza a la que estaba esperando. Las consultas
+ * ya iniciadas no se interrumpen, porque interrumpir un hilo bloqueado en el socket cerraría la conexión
+ * del pool; su resultado simplemente se descarta si ya hay una consulta más nueva. El resultado se
+ * entrega con el publicador indicado (Platform::runLater en los controladores).
+ */
+public class BusquedaDiferida<T> {
+    private static final long ESPERA_MS = Long.getLong("cobra.busqueda.esperaMs", 150);
+    private static final long LENTA_MS = Long.getLong("cobra.busqueda.lentaMs", 250);
+
+    // Un solo hilo lleva los temporizadores de todos los cuadros; las consultas corren en hilos virtuales
+    private static final ScheduledExecutorService TEMPORIZADOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "busqueda-temporizador");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private final String nombre;
+    private final Executor publicador;
+    private final Consumer<T> alTerminar;
+    private final Consumer<Exception> alFallar;
+
+    private long generacion;
+    private ScheduledFuture<?> programada;
+    private boolean enCurso;
+    private Callable<T> siguiente;
+    private long generacionSiguiente;
+
+    private long consultas;
+    private long descartadas;
+    private long errores;
+    private long ultimaNanos;
+    private long maximaNanos;
+    private long totalNanos;
+
+    /**
+     * @param nombre     Nombre del cuadro para los hilos y los avisos de consultas lentas
+     * @param publicador Ejecuta la entrega del resultado, normalmente en el hilo de la interfaz
+     * @param alTerminar Recibe el resultado de la consulta más reciente
+     * @param alFallar   Recibe el error de la consulta más reciente
+     */
+    public BusquedaDiferida(String nombre, Executor publicador, Consumer<T> alTerminar, Consumer<Exception> alFallar) {
+        this.nombre = nombre;
+        this.publicador = publicador;
+        this.alTerminar = alTerminar;
+        this.alFallar = alFallar;
+    }
+
+    /**
+     * Programa la consulta tras la espera, reemplazando a la anterior. La consulta no debe leer
+     * controles de la interfaz: los valores se toman antes de llamar a este método.
+     */
+    public void solicitar(Callable<T> consulta) {
+        programar(consulta, ESPERA_MS);
+    }
+
+    /**
+     * Programa la consulta sin espera, para cambios que no vienen del teclado (filtros, recargas)
+     */
+    public void solicitarYa(Callable<T> consulta) {
+        programar(consulta, 0);
+    }
+
+    /**
+     * Descarta la consulta programada y el resultado de la que esté en curso
+     */
+    public synchronized void cancelar() {
+        generacion++;
+        if (programada != null) {
+            programada.cancel(false);
+            programada = null;
+        }
+        siguiente = null;
+    }
+
+    public synchronized EstadisticasBusqueda getEstadisticas() {
+        return new EstadisticasBusqueda(consultas, descartadas, errores, ultimaNanos / 1_000_000,
+                maximaNanos / 1_000_000, consultas == 0 ? 0 : totalNanos / consultas / 1_000_000);
+    }
+
+    private synchronized void programar(Callable<T> consulta, long esperaMs) {
+        long numero = ++generacion;
+        if (programada != null && programada.cancel(false)) {
+            descartadas++;
+        }
+        programada = TEMPORIZADOR.schedule(() -> iniciar(numero, consulta), esperaMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Arranca la consulta o la deja como siguiente si ya hay una en curso
+     */
+    private synchronized void iniciar(long numero, Callable<T> consulta) {
+        if (numero != generacion) {
+            descartadas++;
+            return;
+        }
+        if (enCurso) {
+            if (siguiente != null) {
+                descartadas++;
+            }
+            siguiente = consulta;
+            generacionSiguiente = numero;
+            return;
+        }
+        enCurso = true;
+        Thread.ofVirtual().name("busqueda-" + nombre).start(() -> correr(numero, consulta));
+    }
+
+    private void correr(long numero, Callable<T> consulta) {
+        while (consulta != null) {
+            ejecutar(numero, consulta);
+            synchronized (this) {
+                consulta = siguiente != null && generacionSiguiente == generacion ? siguiente : null;
+                numero = generacionSiguiente;
+                siguiente = null;
+                enCurso = consulta != null;
+            }
+        }
+    }
+
+    private void ejecutar(long numero, Callable<T> consulta) {
+        long inicio = System.nanoTime();
+        try {
+            T resultado = consulta.call();
+            registrar(System.nanoTime() - inicio, false);
+            publicar(numero, () -> alTerminar.accept(resultado));
+        } catch (Exception e) {
+            registrar(System.nanoTime() - inicio, true);
+            publicar(numero, () -> alFallar.accept(e));
+        }
+    }
+
+    /**
+     * Entrega el resultado solo si al llegar al publicador sigue siendo de la consulta más reciente
+     */
+    private void publicar(long numero, Runnable entrega) {
+        publicador.execute(() -> {
+            synchronized (this) {
+                if (numero != generacion) {
+                    descartadas++;
+                    return;
+                }
+            }
+            entrega.run();
+        });
+    }
+
+    private synchronized void registrar(long nanos, boolean fallo) {
+        consultas++;
+        if (fallo) {
+            errores++;
+        }
+        ultimaNanos = nanos;
+        maximaNanos = Math.max(maximaNanos, nanos);
+        totalNanos += nanos;
+        if (nanos / 1_000_000 >= LENTA_MS) {
+            System.err.println("Búsqueda lenta en " + nombre + ": " + nanos / 1_000_000 + " ms");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.search;
+
+/**
+ * Instantánea de los contadores y tiempos de una {@link BusquedaDiferida}
+ */
+public class EstadisticasBusqueda {
+    private final long consultas;
+    private final long descartadas;
+    private final long errores;
+    private final long ultimaMs;
+    private final long maximaMs;
+    private final long promedioMs;
+
+    EstadisticasBusqueda(long consultas, long descartadas, long errores, long ultimaMs, long maximaMs,
+                         long promedioMs) {
+        this.consultas = consultas;
+        this.descartadas = descartadas;
+        this.errores = errores;
+        this.ultimaMs = ultimaMs;
+        this.maximaMs = maximaMs;
+        this.promedioMs = promedioMs;
+    }
+
+    /**
+     * Consultas ejecutadas, incluidas las que fallaron
+     */
+    public long getConsultas() {
+        return consultas;
+    }
+
+    /**
+     * Consultas reemplazadas antes de empezar o cuyo resultado llegó después de otra más nueva
+     */
+    public long getDescartadas() {
+        return descartadas;
+    }
+
+    public long getErrores() {
+        return errores;
+    }
+
+    public long getUltimaMs() {
+        return ultimaMs;
+    }
+
+    public long getMaximaMs() {
+        return maximaMs;
+    }
+
+    public long getPromedioMs() {
+        return promedioMs;
+    }
+
+    @Override
+    public String toString() {
+        return "EstadisticasBusqueda{" +
+                "consultas=" + consultas +
+                ", descartadas=" + descartadas +
+                ", errores=" + errores +
+                ", ultimaMs=" + ultimaMs +
+                ", maximaMs=" + maximaMs +
+                ", promedioMs=" + promedioMs +
+                '}';
+    }
+}
@@ -0,0 +1,488 @@
+package org.search;
+
+import org.models.Producto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice en memoria para buscar productos por nombre, tamaño y descripción mientras se escribe.
+ *
+ * Cada campo normalizado se parte en trigramas (tres caracteres seguidos) y cada trigrama guarda
+ * la lista ordenada de IDs de producto que lo contienen. Una búsqueda de subcadena intersecta las
+ * listas de sus trigramas y solo verifica los candidatos que quedan; los términos de menos de tres
+ * caracteres se verifican sobre los candidatos de los demás términos o, si no hay, sobre todo el índice.
+ * Se actualiza producto por producto, sin reconstruirse cuando cambia el catálogo.
+ *
+ * Si hay pocas coincidencias exactas se agregan al final productos parecidos: aquellos donde cada
+ * término de cuatro letras o más es el inicio de alguna palabra con una o dos letras de diferencia
+ * ("capuchino" encuentra "Cappuccino"). Se compara contra el vocabulario de palabras distintas, no
+ * producto por producto, y la comparación se corta al agotar el presupuesto de tiempo por consulta
+ * (-Dcobra.busqueda.presupuestoMs, 4 por defecto) para no trabar la pantalla.
+ */
+public class IndiceProductos {
+    // Orden de los resultados: primero coincidencias al inicio del nombre, al final solo en otros campos
+    private static final int INICIO_NOMBRE = 0;
+    private static final int INICIO_PALABRA = 1;
+    private static final int DENTRO_NOMBRE = 2;
+    private static final int OTROS_CAMPOS = 3;
+    private static final int PARECIDO = 4;
+
+    // Con al menos estas coincidencias exactas no se buscan parecidos
+    private static final int MINIMO_EXACTAS = 20;
+    // Los términos más cortos solo coinciden exactos
+    private static final int LONGITUD_MINIMA_PARECIDO = 4;
+    private static final long PRESUPUESTO_NANOS = Long.getLong("cobra.busqueda.presupuestoMs", 4) * 1_000_000L;
+
+    private final Map<Integer, Documento> documentos = new HashMap<>();
+    private final Map<Long, ListaIds> trigramas = new HashMap<>();
+    // Cada palabra distinta de los campos y los documentos que la usan, para comparar parecidos
+    private final Map<String, Palabra> vocabulario = new HashMap<>();
+
+    /**
+     * Reemplaza el contenido del índice
+     */
+    public synchronized void reconstruir(Collection<Producto> productos) {
+        documentos.clear();
+        trigramas.clear();
+        vocabulario.clear();
+        for (Producto producto : productos) {
+            agregarDocumento(new Documento(producto));
+        }
+    }
+
+    /**
+     * Agrega un producto o reemplaza sus datos si ya estaba
+     */
+    public synchronized void agregar(Producto producto) {
+        quitarDocumento(producto.getIdProducto());
+        agregarDocumento(new Documento(producto));
+    }
+
+    public synchronized void quitar(int idProducto) {
+        quitarDocumento(idProducto);
+    }
+
+    public synchronized int size() {
+        return documentos.size();
+    }
+
+    /**
+     * Busca los productos que contienen todos los términos de la consulta en alguno de sus campos
+     *
+     * @return IDs de producto, primero los que empiezan con la consulta y luego por nombre; al final los
+     *         parecidos, del más cercano al más lejano
+     */
+    public synchronized List<Integer> buscar(String consulta) {
+        String texto = Normalizador.normalizar(consulta);
+        if (texto.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String[] terminos = texto.split(" ");
+
+        // El rango se calcula una vez por coincidencia, no en cada comparación del ordenamiento
+        List<Coincidencia> coincidencias = new ArrayList<>();
+        for (Documento documento : candidatos(terminos)) {
+            if (documento.contieneTodos(terminos)) {
+                coincidencias.add(new Coincidencia(documento, documento.rango(texto, terminos[0]), 0));
+            }
+        }
+        if (coincidencias.size() < MINIMO_EXACTAS) {
+            agregarParecidos(terminos, coincidencias);
+        }
+        coincidencias.sort(null);
+
+        List<Integer> ids = new ArrayList<>(coincidencias.size());
+        for (Coincidencia coincidencia : coincidencias) {
+            ids.add(coincidencia.documento.id);
+        }
+        return ids;
+    }
+
+    /**
+     * Documentos que contienen todos los trigramas de los términos largos; sin términos largos, todos
+     */
+    private Collection<Documento> candidatos(String[] terminos) {
+        List<ListaIds> listas = new ArrayList<>();
+        for (String termino : terminos) {
+            for (int i = 0; i + 3 <= termino.length(); i++) {
+                ListaIds lista = trigramas.get(trigrama(termino, i));
+                if (lista == null) {
+                    return List.of();
+                }
+                listas.add(lista);
+            }
+        }
+        if (listas.isEmpty()) {
+            return documentos.values();
+        }
+
+        // Intersectar empezando por la lista más corta
+        listas.sort((a, b) -> Integer.compare(a.tamano, b.tamano));
+        int[] actual = Arrays.copyOf(listas.get(0).ids, listas.get(0).tamano);
+        int tamano = actual.length;
+        for (int l = 1; l < listas.size() && tamano > 0; l++) {
+            tamano = listas.get(l).intersectar(actual, tamano);
+        }
+
+        List<Documento> resultado = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            resultado.add(documentos.get(actual[i]));
+        }
+        return resultado;
+    }
+
+    /**
+     * Agrega los documentos donde todos los términos aparecen con pocos errores, sin repetir los exactos
+     */
+    private void agregarParecidos(String[] terminos, List<Coincidencia> coincidencias) {
+        long limite = System.nanoTime() + PRESUPUESTO_NANOS;
+
+        // Distancia de cada documento a cada término; se intersecta empezando por el término con menos
+        List<Map<Integer, Integer>> porTermino = new ArrayList<>();
+        for (String termino : terminos) {
+            Map<Integer, Integer> distancias = distanciasTermino(termino, limite);
+            if (distancias.isEmpty()) {
+                return;
+            }
+            porTermino.add(distancias);
+        }
+        porTermino.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        Set<Integer> exactos = new HashSet<>();
+        for (Coincidencia coincidencia : coincidencias) {
+            exactos.add(coincidencia.documento.id);
+        }
+
+        for (Map.Entry<Integer, Integer> entrada : porTermino.get(0).entrySet()) {
+            if (exactos.contains(entrada.getKey())) {
+                continue;
+            }
+            int distancia = entrada.getValue();
+            for (int t = 1; t < porTermino.size() && distancia >= 0; t++) {
+                Integer otra = porTermino.get(t).get(entrada.getKey());
+                distancia = otra != null ? distancia + otra : -1;
+            }
+            if (distancia >= 0) {
+                coincidencias.add(new Coincidencia(documentos.get(entrada.getKey()), PARECIDO, distancia));
+            }
+        }
+    }
+
+    /**
+     * Documentos que contienen el término, con distancia 0, o una palabra que empieza parecido, con el
+     * número de errores. Las palabras se comparan una sola vez aunque aparezcan en muchos productos.
+     */
+    private Map<Integer, Integer> distanciasTermino(String termino, long limite) {
+        Map<Integer, Integer> distancias = new HashMap<>();
+        for (Documento documento : candidatos(new String[]{termino})) {
+            if (documento.contiene(termino)) {
+                distancias.put(documento.id, 0);
+            }
+        }
+        if (termino.length() < LONGITUD_MINIMA_PARECIDO) {
+            return distancias;
+        }
+
+        int maximo = erroresPermitidos(termino);
+        long letrasTermino = letras(termino);
+        ComparadorParecido comparador = new ComparadorParecido(termino, maximo);
+        int revisadas = 0;
+        for (Palabra palabra : vocabulario.values()) {
+            // Consultar el reloj en cada palabra costaría más que la comparación
+            if ((++revisadas & 63) == 0 && System.nanoTime() - limite > 0) {
+                break;
+            }
+            // A una palabra más corta le faltan más letras de las que se permiten, y cada letra del
+            // término que la palabra no tiene cuesta al menos un error
+            if (palabra.texto.length() < termino.length() - maximo
+                    || Long.bitCount(letrasTermino & ~palabra.letras) > maximo) {
+                continue;
+            }
+            int distancia = comparador.distancia(palabra.texto);
+            if (distancia > maximo) {
+                continue;
+            }
+            ListaIds lista = palabra.documentos;
+            for (int i = 0; i < lista.tamano; i++) {
+                distancias.merge(lista.ids[i], distancia, Math::min);
+            }
+        }
+        return distancias;
+    }
+
+    /**
+     * Conjunto de letras y dígitos del texto como bits; cualquier otro carácter comparte el último bit
+     */
+    private static long letras(String texto) {
+        long mascara = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                mascara |= 1L << (c - 'a');
+            } else if (c >= '0' && c <= '9') {
+                mascara |= 1L << (26 + c - '0');
+            } else {
+                mascara |= 1L << 63;
+            }
+        }
+        return mascara;
+    }
+
+    private static int erroresPermitidos(String termino) {
+        return termino.length() >= 7 ? 2 : 1;
+    }
+
+    private void agregarDocumento(Documento documento) {
+        documentos.put(documento.id, documento);
+        for (long clave : documento.trigramas) {
+            trigramas.computeIfAbsent(clave, k -> new ListaIds()).agregar(documento.id);
+        }
+        for (String palabra : documento.palabras) {
+            vocabulario.computeIfAbsent(palabra, Palabra::new).documentos.agregar(documento.id);
+        }
+    }
+
+    private void quitarDocumento(Integer idProducto) {
+        Documento anterior = documentos.remove(idProducto);
+        if (anterior == null) {
+            return;
+        }
+        for (long clave : anterior.trigramas) {
+            ListaIds lista = trigramas.get(clave);
+            if (lista != null && lista.quitar(anterior.id) == 0) {
+                trigramas.remove(clave);
+            }
+        }
+        for (String palabra : anterior.palabras) {
+            Palabra entrada = vocabulario.get(palabra);
+            if (entrada != null && entrada.documentos.quitar(anterior.id) == 0) {
+                vocabulario.remove(palabra);
+            }
+        }
+    }
+
+    private static long trigrama(String texto, int inicio) {
+        return ((long) texto.charAt(inicio) << 32) | ((long) texto.charAt(inicio + 1) << 16) | texto.charAt(inicio + 2);
+    }
+
+    /**
+     * Campos normalizados de un producto y los trigramas que aportó al índice
+     */
+    private static final class Documento {
+        final int id;
+        final String nombre;
+        final String tamano;
+        final String descripcion;
+        final String[] palabras;
+        final long[] trigramas;
+
+        Documento(Producto producto) {
+            this.id = producto.getIdProducto();
+            this.nombre = Normalizador.normalizar(producto.getNombre());
+            this.tamano = Normalizador.normalizar(producto.getTamano());
+            this.descripcion = Normalizador.normalizar(producto.getDescripcion());
+            this.palabras = Arrays.stream((nombre + " " + tamano + " " + descripcion).split(" "))
+                    .filter(palabra -> !palabra.isEmpty())
+                    .distinct()
+                    .toArray(String[]::new);
+
+            // Los trigramas no cruzan de un campo a otro
+            long[] claves = new long[Math.max(0, nombre.length() - 2) + Math.max(0, tamano.length() - 2)
+                    + Math.max(0, descripcion.length() - 2)];
+            int n = 0;
+            for (String campo : new String[]{nombre, tamano, descripcion}) {
+                for (int i = 0; i + 3 <= campo.length(); i++) {
+                    claves[n++] = trigrama(campo, i);
+                }
+            }
+            this.trigramas = Arrays.stream(claves).distinct().toArray();
+        }
+
+        boolean contieneTodos(String[] terminos) {
+            for (String termino : terminos) {
+                if (!contiene(termino)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean contiene(String termino) {
+            return nombre.contains(termino) || tamano.contains(termino) || descripcion.contains(termino);
+        }
+
+        int rango(String consulta, String primerTermino) {
+            if (nombre.startsWith(consulta)) {
+                return INICIO_NOMBRE;
+            }
+            int i = nombre.indexOf(primerTermino);
+            while (i >= 0) {
+                if (i == 0 || nombre.charAt(i - 1) == ' ') {
+                    return INICIO_PALABRA;
+                }
+                i = nombre.indexOf(primerTermino, i + 1);
+            }
+            return nombre.contains(primerTermino) ? DENTRO_NOMBRE : OTROS_CAMPOS;
+        }
+    }
+
+    /**
+     * Distancia de edición (inserción, borrado, cambio o intercambio de dos letras vecinas) entre un
+     * término y el prefijo de cada palabra que más se le parece, así "capuch" ya encuentra "cappuccino".
+     * Solo calcula la franja de celdas a lo más a maximo de la diagonal y reutiliza las filas entre palabras.
+     */
+    static final class ComparadorParecido {
+        private final String termino;
+        private final int maximo;
+        private int[] antepenultima;
+        private int[] anterior;
+        private int[] actual;
+
+        ComparadorParecido(String termino, int maximo) {
+            this.termino = termino;
+            this.maximo = maximo;
+            int ancho = termino.length() + maximo + 1;
+            this.antepenultima = new int[ancho];
+            this.anterior = new int[ancho];
+            this.actual = new int[ancho];
+        }
+
+        /**
+         * @return La distancia, o maximo + 1 si lo supera
+         */
+        int distancia(String palabra) {
+            int n = termino.length();
+            int fuera = maximo + 1;
+            // Un prefijo más largo que el término más los errores no puede quedar dentro del máximo
+            int m = Math.min(palabra.length(), n + maximo);
+            if (m < n - maximo) {
+                return fuera;
+            }
+            for (int j = 0; j <= m; j++) {
+                anterior[j] = Math.min(j, fuera);
+            }
+            for (int i = 1; i <= n; i++) {
+                int desde = Math.max(1, i - maximo);
+                int hasta = Math.min(m, i + maximo);
+                actual[desde - 1] = desde == 1 ? Math.min(i, fuera) : fuera;
+                int minimoFila = actual[desde - 1];
+                char a = termino.charAt(i - 1);
+                for (int j = desde; j <= hasta; j++) {
+                    char b = palabra.charAt(j - 1);
+                    int valor = Math.min(Math.min(anterior[j], actual[j - 1]) + 1, anterior[j - 1] + (a == b ? 0 : 1));
+                    if (i > 1 && j > 1 && a == palabra.charAt(j - 2) && termino.charAt(i - 2) == b) {
+                        valor = Math.min(valor, antepenultima[j - 2] + 1);
+                    }
+                    actual[j] = Math.min(valor, fuera);
+                    minimoFila = Math.min(minimoFila, actual[j]);
+                }
+                if (minimoFila > maximo) {
+                    return fuera;
+                }
+                // La fila siguiente lee una celda más a la derecha
+                if (hasta < m) {
+                    actual[hasta + 1] = fuera;
+                }
+                int[] libre = antepenultima;
+                antepenultima = anterior;
+                anterior = actual;
+                actual = libre;
+            }
+            int mejor = fuera;
+            for (int j = Math.max(0, n - maximo); j <= m; j++) {
+                mejor = Math.min(mejor, anterior[j]);
+            }
+            return mejor;
+        }
+    }
+
+    /**
+     * Palabra del vocabulario con sus letras precalculadas para descartarla sin compararla completa
+     */
+    private static final class Palabra {
+        final String texto;
+        final long letras;
+        final ListaIds documentos = new ListaIds();
+
+        Palabra(String texto) {
+            this.texto = texto;
+            this.letras = letras(texto);
+        }
+    }
+
+    private record Coincidencia(Documento documento, int rango, int distancia) implements Comparable<Coincidencia> {
+        @Override
+        public int compareTo(Coincidencia otra) {
+            int porRango = Integer.compare(rango, otra.rango);
+            if (porRango != 0) {
+                return porRango;
+            }
+            int porDistancia = Integer.compare(distancia, otra.distancia);
+            if (porDistancia != 0) {
+                return porDistancia;
+            }
+            int porNombre = documento.nombre.compareTo(otra.documento.nombre);
+            return porNombre != 0 ? porNombre : Integer.compare(documento.id, otra.documento.id);
+        }
+    }
+
+    /**
+     * Lista ordenada de IDs sin duplicados sobre un arreglo de int
+     */
+    private static final class ListaIds {
+        int[] ids = new int[4];
+        int tamano;
+
+        void agregar(int id) {
+            int i = Arrays.binarySearch(ids, 0, tamano, id);
+            if (i >= 0) {
+                return;
+            }
+            i = -i - 1;
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+            }
+            System.arraycopy(ids, i, ids, i + 1, tamano - i);
+            ids[i] = id;
+            tamano++;
+        }
+
+        /**
+         * @return Los IDs que quedan
+         */
+        int quitar(int id) {
+            int i = Arrays.binarySearch(ids, 0, tamano, id);
+            if (i >= 0) {
+                System.arraycopy(ids, i + 1, ids, i, tamano - i - 1);
+                tamano--;
+            }
+            return tamano;
+        }
+
+        /**
+         * Deja en el arreglo solo los IDs que también están en esta lista
+         *
+         * @return Cuántos quedaron al inicio del arreglo
+         */
+        int intersectar(int[] otros, int cuantos) {
+            int n = 0;
+            int j = 0;
+            for (int i = 0; i < cuantos && j < tamano; i++) {
+                while (j < tamano && ids[j] < otros[i]) {
+                    j++;
+                }
+                if (j < tamano && ids[j] == otros[i]) {
+                    otros[n++] = otros[i];
+                }
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.search;
+
+import java.text.Normalizer;
+
+/**
+ * Normaliza textos para compararlos en las búsquedas: minúsculas, sin acentos y con espacios simples
+ */
+public final class Normalizador {
+
+    private Normalizador() {
+    }
+
+    /**
+     * Quita acentos y diéresis ("Café" → "cafe", "Ñandú" → "nandu"), pasa a minúsculas y deja un solo
+     * espacio entre palabras
+     *
+     * @return El texto normalizado, o cadena vacía si es null
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        // Separa cada letra acentuada en la letra base y su marca, que se descarta abajo
+        String descompuesto = esAscii(texto) ? texto : Normalizer.normalize(texto, Normalizer.Form.NFD);
+
+        StringBuilder resultado = new StringBuilder(descompuesto.length());
+        boolean espacioPendiente = false;
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (Character.isWhitespace(c)) {
+                espacioPendiente = resultado.length() > 0;
+                continue;
+            }
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (espacioPendiente) {
+                resultado.append(' ');
+                espacioPendiente = false;
+            }
+            resultado.append(Character.toLowerCase(c));
+        }
+        return resultado.toString();
+    }
+
+    private static boolean esAscii(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,407 @@
+package org.services;
+
+import org.dao.GeneradorIds;
+import org.models.Venta;
+import org.models.VentaProducto;
+import org.utils.DatosLocales;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cola durable de escritura diferida entre la caja y la base de datos.
+ * Cada venta se anexa al {@link DiarioVentas} local y se da por aceptada;
+ * un hilo escritor la vacía por lotes hacia MariaDB con {@link VentaService}.
+ * Si la base de datos no está disponible las ventas se acumulan en el diario
+ * y se reenvían en orden cuando vuelve la conexión, también tras reiniciar la aplicación.
+ *
+ * Configuración (propiedades del sistema):
+ * cobra.dataDir (por defecto ~/.cobra_te), cobra.diario.sincronizacion (SIEMPRE, INTERVALO o NUNCA),
+ * cobra.diario.intervaloMs y cobra.diario.segmentoBytes.
+ */
+public class ColaVentas {
+    private static ColaVentas instance;
+
+    /** Ventas escritas por transacción */
+    private static final int TAMANO_LOTE = 50;
+    private static final long ESPERA_INICIAL_MS = 1_000;
+    private static final long ESPERA_MAXIMA_MS = 30_000;
+    private static final String EXTENSION = ".venta";
+    private static final int VERSION_REGISTRO = 2;
+    /** Caracteres del identificador de la terminal que se usan en el folio */
+    private static final int LONGITUD_FOLIO = 8;
+
+    private final VentaService ventaService;
+    private final GeneradorIds generadorIds;
+    private final DiarioVentas diario;
+    private final String terminal;
+    private final Path dirFallidas;
+    private final LinkedBlockingDeque<VentaPendiente> cola = new LinkedBlockingDeque<>();
+    private final AtomicInteger pendientes = new AtomicInteger();
+    private final AtomicInteger fallidas = new AtomicInteger();
+    private final List<Runnable> observadores = new CopyOnWriteArrayList<>();
+    private volatile boolean reintentando;
+
+    private ColaVentas() {
+        this.ventaService = VentaService.getInstance();
+        this.generadorIds = GeneradorIds.ventas();
+        Path dataDir = DatosLocales.directorio();
+        this.dirFallidas = dataDir.resolve("ventas").resolve("fallidas");
+        try {
+            Files.createDirectories(dirFallidas);
+            this.terminal = leerTerminal(dataDir);
+            this.diario = abrirDiario(dataDir);
+            recuperar();
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudo abrir el diario local de ventas: " + e.getMessage(), e);
+        }
+
+        Thread.ofVirtual().name("cola-ventas").start(this::escribir);
+    }
+
+    public static synchronized ColaVentas getInstance() {
+        if (instance == null) {
+            instance = new ColaVentas();
+        }
+        return instance;
+    }
+
+    /**
+     * Abre el diario de ventas del directorio de datos con la configuración de las propiedades del sistema
+     */
+    static DiarioVentas abrirDiario(Path dataDir) throws IOException {
+        DiarioVentas.Sincronizacion sincronizacion = DiarioVentas.Sincronizacion.valueOf(
+                System.getProperty("cobra.diario.sincronizacion", "SIEMPRE").toUpperCase());
+        long intervaloMs = Long.parseLong(System.getProperty("cobra.diario.intervaloMs", "200"));
+        int segmentoBytes = Integer.parseInt(System.getProperty("cobra.diario.segmentoBytes",
+                String.valueOf(4 * 1024 * 1024)));
+        return new DiarioVentas(dataDir.resolve("diario"), segmentoBytes, sincronizacion, intervaloMs);
+    }
+
+    /**
+     * Acepta la venta: la anexa al diario local y la encola para escribirse en la base de datos.
+     * Regresa en cuanto el diario la registró, sin esperar a MariaDB. Si hay IDs reservados
+     * la venta recibe aquí su ID definitivo; si no, lo recibe al escribirse.
+     *
+     * @return La venta pendiente con su folio local
+     * @throws IOException si no se pudo guardar localmente (la venta no fue aceptada)
+     */
+    public VentaPendiente encolar(Venta venta, List<VentaProducto> productos) throws IOException {
+        if (venta.getIdVenta() == null) {
+            venta.setIdVenta(generadorIds.siguienteDisponible());
+        }
+        long secuencia = diario.agregar(serializar(venta, productos));
+        VentaPendiente pendiente = new VentaPendiente(folio(secuencia), secuencia, venta, productos);
+        pendientes.incrementAndGet();
+        cola.addLast(pendiente);
+        notificar();
+        return pendiente;
+    }
+
+    /**
+     * Ventas aceptadas que aún no se escriben en la base de datos
+     */
+    public int getPendientes() {
+        return pendientes.get();
+    }
+
+    /**
+     * Ventas rechazadas por la base de datos; quedan en el directorio de fallidas para revisión
+     */
+    public int getFallidas() {
+        return fallidas.get();
+    }
+
+    /**
+     * Indica si el último intento falló por falta de conexión y el escritor está esperando para reintentar
+     */
+    public boolean isReintentando() {
+        return reintentando;
+    }
+
+    /**
+     * Registra una acción a ejecutar cuando cambian los contadores.
+     * Se llama desde el hilo escritor, no desde el hilo de JavaFX.
+     */
+    public void agregarObservador(Runnable observador) {
+        observadores.add(observador);
+    }
+
+    public void quitarObservador(Runnable observador) {
+        observadores.remove(observador);
+    }
+
+    private void escribir() {
+        try {
+            generadorIds.precargar();
+        } catch (SQLException e) {
+            System.err.println("No se pudieron reservar IDs de venta: " + e.getMessage());
+        }
+
+        long espera = ESPERA_INICIAL_MS;
+        while (true) {
+            List<VentaPendiente> lote = new ArrayList<>(TAMANO_LOTE);
+            try {
+                lote.add(cola.takeFirst());
+            } catch (InterruptedException e) {
+                return;
+            }
+            cola.drainTo(lote, TAMANO_LOTE - 1);
+
+            try {
+                escribirLote(lote);
+                reintentando = false;
+                espera = ESPERA_INICIAL_MS;
+            } catch (SQLException e) {
+                // Sin conexión: devolver el lote al frente en su orden y reintentar más tarde
+                for (int i = lote.size() - 1; i >= 0; i--) {
+                    cola.addFirst(lote.get(i));
+                }
+                reintentando = true;
+                notificar();
+                System.err.println("Base de datos no disponible, " + pendientes.get()
+                        + " ventas en espera: " + e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(espera);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                espera = Math.min(ESPERA_MAXIMA_MS, espera * 2);
+                continue;
+            }
+
+            // Reservar IDs por adelantado para que las siguientes ventas los tengan al aceptarse;
+            // si falla, el lote ya quedó escrito y las siguientes ventas reciben su ID al escribirse
+            try {
+                generadorIds.precargar();
+            } catch (SQLException e) {
+                System.err.println("No se pudieron reservar IDs de venta: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Escribe el lote completo; si la base de datos lo rechaza, lo reintenta venta por venta
+     * para apartar solo las que fallan. Las ventas terminadas se quitan del lote.
+     *
+     * @throws SQLException si el error es de conexión; el lote conserva las ventas por reintentar
+     */
+    private void escribirLote(List<VentaPendiente> lote) throws SQLException {
+        try {
+            ventaService.registrarLote(terminal, lote);
+            for (VentaPendiente pendiente : lote) {
+                terminar(pendiente, false);
+            }
+            confirmar(lote.get(lote.size() - 1));
+            lote.clear();
+            return;
+        } catch (SQLException | RuntimeException e) {
+            if (e instanceof SQLException sqlException && esTransitorio(sqlException)) {
+                throw sqlException;
+            }
+        }
+
+        while (!lote.isEmpty()) {
+            VentaPendiente pendiente = lote.get(0);
+            try {
+                ventaService.registrarLote(terminal, List.of(pendiente));
+                terminar(pendiente, false);
+            } catch (SQLException | RuntimeException e) {
+                if (e instanceof SQLException sqlException && esTransitorio(sqlException)) {
+                    throw sqlException;
+                }
+                System.err.println("Venta " + pendiente.getFolio() + " rechazada: " + e.getMessage());
+                terminar(pendiente, true);
+            }
+            confirmar(pendiente);
+            lote.remove(0);
+        }
+    }
+
+    private static boolean esTransitorio(SQLException e) {
+        if (e instanceof SQLIntegrityConstraintViolationException) {
+            return false;
+        }
+        String estado = e.getSQLState();
+        return e instanceof SQLTransientException
+                || e instanceof SQLRecoverableException
+                || e instanceof SQLNonTransientConnectionException
+                || (estado != null && estado.startsWith("08"))
+                || (estado == null && e.getErrorCode() == 0);
+    }
+
+    private void terminar(VentaPendiente pendiente, boolean fallida) {
+        if (fallida) {
+            try {
+                exportar(pendiente, dirFallidas.resolve(pendiente.getFolio() + EXTENSION));
+            } catch (IOException e) {
+                System.err.println("Error al apartar venta " + pendiente.getFolio() + ": " + e.getMessage());
+            }
+            fallidas.incrementAndGet();
+        }
+        pendientes.decrementAndGet();
+        notificar();
+    }
+
+    /**
+     * Avanza el punto de control del diario hasta la venta indicada
+     */
+    private void confirmar(VentaPendiente pendiente) {
+        try {
+            diario.confirmarHasta(pendiente.getSecuencia());
+        } catch (IOException e) {
+            // La base de datos ya registró la secuencia: un reenvío posterior se omitirá
+            System.err.println("Error al actualizar el diario de ventas: " + e.getMessage());
+        }
+    }
+
+    private void notificar() {
+        for (Runnable observador : observadores) {
+            observador.run();
+        }
+    }
+
+    private String folio(long secuencia) {
+        return terminal.substring(0, Math.min(LONGITUD_FOLIO, terminal.length())) + "-" + secuencia;
+    }
+
+    /**
+     * Vuelve a encolar las ventas del diario que no se confirmaron en una ejecución anterior
+     * y cuenta las que quedaron apartadas en el directorio de fallidas
+     */
+    private void recuperar() throws IOException {
+        for (DiarioVentas.Registro registro : diario.leerPendientes()) {
+            try {
+                cola.addLast(deserializar(registro));
+                pendientes.incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Registro " + registro.getSecuencia() + " del diario ilegible: " + e.getMessage());
+            }
+        }
+
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(dirFallidas, "*" + EXTENSION)) {
+            dir.forEach(archivo -> fallidas.incrementAndGet());
+        }
+    }
+
+    /**
+     * Lee el identificador de la terminal, que también es la clave de diarioReplay.
+     * Si el archivo no existe, está vacío o no contiene un UUID (por ejemplo, tras una caída
+     * mientras se creaba) se genera uno nuevo.
+     */
+    private static String leerTerminal(Path dataDir) throws IOException {
+        Path archivo = dataDir.resolve("terminal.id");
+        if (Files.exists(archivo)) {
+            String terminal = Files.readString(archivo, StandardCharsets.UTF_8).trim();
+            if (esUuid(terminal)) {
+                return terminal;
+            }
+            System.err.println("Identificador de terminal inválido en " + archivo + "; se genera uno nuevo");
+        }
+        String terminal = UUID.randomUUID().toString();
+        // Se escribe en un temporal y se renombra para que una caída no deje el archivo a medias
+        Path temporal = archivo.resolveSibling("terminal.id.tmp");
+        try (FileChannel salida = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            salida.write(ByteBuffer.wrap(terminal.getBytes(StandardCharsets.UTF_8)));
+            salida.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return terminal;
+    }
+
+    private static boolean esUuid(String texto) {
+        try {
+            return UUID.fromString(texto).toString().equals(texto);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static byte[] serializar(Venta venta, List<VentaProducto> productos) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + productos.size() * 8);
+        try (DataOutputStream salida = new DataOutputStream(bytes)) {
+            salida.writeByte(VERSION_REGISTRO);
+            salida.writeInt(venta.getIdVenta() == null ? 0 : venta.getIdVenta());
+            salida.writeUTF(venta.getFecha().toString());
+            salida.writeInt(venta.getIdUsuario());
+            salida.writeUTF(venta.getTotal().toPlainString());
+            salida.writeInt(productos.size());
+            for (VentaProducto ventaProducto : productos) {
+                salida.writeInt(ventaProducto.getIdProducto());
+                salida.writeInt(ventaProducto.getCantidad());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private VentaPendiente deserializar(DiarioVentas.Registro registro) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(registro.getDatos()))) {
+            int version = entrada.readByte();
+            if (version != VERSION_REGISTRO) {
+                throw new IOException("Versión de registro desconocida: " + version);
+            }
+            int idVenta = entrada.readInt();
+            Venta venta = new Venta(LocalDateTime.parse(entrada.readUTF()), entrada.readInt(),
+                    new BigDecimal(entrada.readUTF()));
+            venta.setIdVenta(idVenta == 0 ? null : idVenta);
+            int cantidad = entrada.readInt();
+            List<VentaProducto> productos = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                productos.add(new VentaProducto(null, entrada.readInt(), entrada.readInt()));
+            }
+            return new VentaPendiente(folio(registro.getSecuencia()), registro.getSecuencia(), venta, productos);
+        }
+    }
+
+    /**
+     * Guarda la venta en formato de texto legible para revisión manual
+     */
+    private static void exportar(VentaPendiente pendiente, Path archivo) throws IOException {
+        Venta venta = pendiente.getVenta();
+        Properties datos = new Properties();
+        datos.setProperty("folio", pendiente.getFolio());
+        if (venta.getIdVenta() != null) {
+            datos.setProperty("idVenta", String.valueOf(venta.getIdVenta()));
+        }
+        datos.setProperty("fecha", venta.getFecha().toString());
+        datos.setProperty("idUsuario", String.valueOf(venta.getIdUsuario()));
+        datos.setProperty("total", venta.getTotal().toPlainString());
+        datos.setProperty("productos", String.valueOf(pendiente.getProductos().size()));
+        for (int i = 0; i < pendiente.getProductos().size(); i++) {
+            VentaProducto ventaProducto = pendiente.getProductos().get(i);
+            datos.setProperty("producto." + i + ".idProducto", String.valueOf(ventaProducto.getIdProducto()));
+            datos.setProperty("producto." + i + ".cantidad", String.valueOf(ventaProducto.getCantidad()));
+        }
+        try (OutputStream salida = Files.newOutputStream(archivo)) {
+            datos.store(salida, null);
+        }
+    }
+}
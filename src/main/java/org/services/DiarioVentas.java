@@ -0,0 +1,364 @@
+package org.services;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario local de solo anexado, en segmentos de archivo mapeados a memoria.
+ * Cada registro lleva una secuencia creciente y un CRC; al abrir el diario se descarta
+ * cualquier registro incompleto al final (por ejemplo, tras un corte de energía).
+ * Un punto de control guarda la última secuencia ya escrita en la base de datos;
+ * los segmentos anteriores a él se eliminan.
+ */
+public final class DiarioVentas implements AutoCloseable {
+
+    /**
+     * Cuándo se sincronizan a disco los registros anexados
+     */
+    public enum Sincronizacion {
+        /** En cada registro: no se pierde ninguna venta aceptada */
+        SIEMPRE,
+        /** Periódicamente: un corte puede perder las ventas del último intervalo */
+        INTERVALO,
+        /** Lo decide el sistema operativo */
+        NUNCA
+    }
+
+    /** longitud (int) + crc (int) + secuencia (long) */
+    private static final int ENCABEZADO = 16;
+    private static final String PREFIJO = "segmento-";
+    private static final String EXTENSION = ".diario";
+    private static final String PUNTO_CONTROL = "diario.confirmado";
+
+    private final Path directorio;
+    private final int tamanoSegmento;
+    private final Sincronizacion sincronizacion;
+    private final ScheduledExecutorService sincronizador;
+
+    // Protegidos por this
+    private FileChannel canal;
+    private MappedByteBuffer segmento;
+    private long ultimaSecuencia;
+    private long confirmada;
+    private boolean sucio;
+
+    /**
+     * Abre (o crea) el diario en el directorio indicado y recupera el final del último segmento
+     */
+    public DiarioVentas(Path directorio, int tamanoSegmento, Sincronizacion sincronizacion, long intervaloMs)
+            throws IOException {
+        this.directorio = directorio;
+        this.tamanoSegmento = tamanoSegmento;
+        this.sincronizacion = sincronizacion;
+        Files.createDirectories(directorio);
+
+        this.confirmada = leerPuntoControl();
+        this.ultimaSecuencia = confirmada;
+        List<Path> segmentos = listarSegmentos();
+        if (!segmentos.isEmpty()) {
+            Path ultimo = segmentos.get(segmentos.size() - 1);
+            ultimaSecuencia = Math.max(ultimaSecuencia, primeraSecuencia(ultimo) - 1);
+            for (Registro registro : leerSegmento(ultimo, null)) {
+                ultimaSecuencia = Math.max(ultimaSecuencia, registro.getSecuencia());
+            }
+            abrirSegmento(ultimo, posicionFinal(ultimo));
+            limpiarFinal();
+        }
+
+        if (sincronizacion == Sincronizacion.INTERVALO) {
+            this.sincronizador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "cobra-te-diario-sincronizacion");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            sincronizador.scheduleWithFixedDelay(this::sincronizar, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.sincronizador = null;
+        }
+    }
+
+    /**
+     * Anexa un registro y devuelve su secuencia
+     */
+    public synchronized long agregar(byte[] datos) throws IOException {
+        int necesario = ENCABEZADO + datos.length;
+        if (segmento == null || segmento.remaining() < necesario) {
+            cambiarSegmento(ultimaSecuencia + 1, necesario);
+        }
+
+        long secuencia = ultimaSecuencia + 1;
+        CRC32C crc = new CRC32C();
+        crc.update(datos);
+        int inicio = segmento.position();
+        // La longitud se escribe al final para que un registro a medias nunca parezca completo
+        segmento.position(inicio + 4);
+        segmento.putInt((int) crc.getValue());
+        segmento.putLong(secuencia);
+        segmento.put(datos);
+        segmento.putInt(inicio, datos.length);
+
+        ultimaSecuencia = secuencia;
+        if (sincronizacion == Sincronizacion.SIEMPRE) {
+            segmento.force(inicio, necesario);
+        } else {
+            sucio = true;
+        }
+        return secuencia;
+    }
+
+    /**
+     * Registros posteriores al punto de control, en orden de secuencia
+     */
+    public synchronized List<Registro> leerPendientes() throws IOException {
+        List<Registro> pendientes = new ArrayList<>();
+        for (Path archivo : listarSegmentos()) {
+            for (Registro registro : leerSegmento(archivo, null)) {
+                if (registro.getSecuencia() > confirmada) {
+                    pendientes.add(registro);
+                }
+            }
+        }
+        return pendientes;
+    }
+
+    /**
+     * Marca como escritos en la base de datos todos los registros hasta la secuencia indicada
+     * y elimina los segmentos que ya no tienen registros pendientes
+     */
+    public synchronized void confirmarHasta(long secuencia) throws IOException {
+        if (secuencia <= confirmada) {
+            return;
+        }
+        confirmada = secuencia;
+
+        Path punto = directorio.resolve(PUNTO_CONTROL);
+        Path temporal = directorio.resolve(PUNTO_CONTROL + ".tmp");
+        try (FileChannel salida = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            salida.write(ByteBuffer.wrap(Long.toString(secuencia).getBytes(StandardCharsets.US_ASCII)));
+            salida.force(true);
+        }
+        Files.move(temporal, punto, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        // Un segmento se puede borrar si el siguiente empieza después de la secuencia confirmada
+        List<Path> segmentos = listarSegmentos();
+        for (int i = 0; i < segmentos.size() - 1; i++) {
+            if (primeraSecuencia(segmentos.get(i + 1)) <= confirmada + 1) {
+                try {
+                    Files.deleteIfExists(segmentos.get(i));
+                } catch (IOException e) {
+                    // Puede seguir mapeado en algunos sistemas; se reintenta en la siguiente confirmación
+                    System.err.println("No se pudo eliminar segmento del diario: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    public synchronized long getUltimaSecuencia() {
+        return ultimaSecuencia;
+    }
+
+    public synchronized long getConfirmada() {
+        return confirmada;
+    }
+
+    /**
+     * Fuerza a disco los registros anexados que aún no se sincronizaron
+     */
+    public synchronized void sincronizar() {
+        if (sucio && segmento != null) {
+            segmento.force();
+            sucio = false;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (sincronizador != null) {
+            sincronizador.shutdownNow();
+        }
+        sincronizar();
+        if (canal != null) {
+            canal.close();
+            canal = null;
+            segmento = null;
+        }
+    }
+
+    /**
+     * Escribe un resumen de los segmentos y sus registros (herramienta de recuperación)
+     */
+    public synchronized void inspeccionar(PrintStream salida) throws IOException {
+        salida.println("Directorio: " + directorio);
+        salida.println("Confirmada hasta: " + confirmada + ", última secuencia: " + ultimaSecuencia);
+        for (Path archivo : listarSegmentos()) {
+            List<String> problemas = new ArrayList<>();
+            List<Registro> registros = leerSegmento(archivo, problemas);
+            long pendientes = registros.stream().filter(r -> r.getSecuencia() > confirmada).count();
+            salida.printf("%s: %d bytes, %d registros (%s), %d pendientes%n", archivo.getFileName(),
+                    Files.size(archivo), registros.size(),
+                    registros.isEmpty() ? "vacío"
+                            : registros.get(0).getSecuencia() + ".." + registros.get(registros.size() - 1).getSecuencia(),
+                    pendientes);
+            for (String problema : problemas) {
+                salida.println("  " + problema);
+            }
+        }
+    }
+
+    private void cambiarSegmento(long primera, int necesario) throws IOException {
+        if (canal != null) {
+            segmento.force();
+            sucio = false;
+            canal.close();
+        }
+        Path archivo = directorio.resolve(String.format("%s%020d%s", PREFIJO, primera, EXTENSION));
+        abrirSegmento(archivo, 0);
+        if (segmento.remaining() < necesario) {
+            // Registro más grande que un segmento: se reabre con el tamaño justo
+            canal.close();
+            Files.delete(archivo);
+            abrirSegmento(archivo, 0, necesario);
+        }
+    }
+
+    private void abrirSegmento(Path archivo, int posicion) throws IOException {
+        abrirSegmento(archivo, posicion, tamanoSegmento);
+    }
+
+    private void abrirSegmento(Path archivo, int posicion, int tamanoMinimo) throws IOException {
+        canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long tamano = Math.max(canal.size(), tamanoMinimo);
+        segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+        segmento.position(posicion);
+    }
+
+    /**
+     * Borra lo que quede después del último registro válido (un registro a medias, dañado o los que
+     * lo seguían), para que al sobrescribirlo no vuelva a aparecer un registro anterior con la misma
+     * secuencia que el nuevo
+     */
+    private void limpiarFinal() {
+        int posicion = segmento.position();
+        // Un registro cortado antes de escribir su longitud deja el resto del encabezado escrito
+        if (!segmento.hasRemaining() || (segmento.remaining() >= ENCABEZADO
+                && segmento.getLong(posicion) == 0 && segmento.getLong(posicion + 8) == 0)) {
+            return;
+        }
+        byte[] ceros = new byte[Math.min(segmento.remaining(), 8192)];
+        while (segmento.hasRemaining()) {
+            segmento.put(ceros, 0, Math.min(ceros.length, segmento.remaining()));
+        }
+        segmento.force();
+        segmento.position(posicion);
+    }
+
+    private List<Path> listarSegmentos() throws IOException {
+        List<Path> segmentos = new ArrayList<>();
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(directorio, PREFIJO + "*" + EXTENSION)) {
+            dir.forEach(segmentos::add);
+        }
+        segmentos.sort(null);
+        return segmentos;
+    }
+
+    private static long primeraSecuencia(Path segmento) {
+        String nombre = segmento.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+    }
+
+    /**
+     * Lee los registros válidos de un segmento hasta el primer hueco o registro dañado
+     *
+     * @param problemas Si no es null, recibe la descripción de donde se detuvo la lectura
+     */
+    private List<Registro> leerSegmento(Path archivo, List<String> problemas) throws IOException {
+        List<Registro> registros = new ArrayList<>();
+        long esperada = primeraSecuencia(archivo);
+        try (FileChannel lectura = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            MappedByteBuffer datos = lectura.map(FileChannel.MapMode.READ_ONLY, 0, lectura.size());
+            while (datos.remaining() >= ENCABEZADO) {
+                int inicio = datos.position();
+                int longitud = datos.getInt();
+                if (longitud == 0) {
+                    break;
+                }
+                int crcEsperado = datos.getInt();
+                long secuencia = datos.getLong();
+                if (longitud < 0 || longitud > datos.remaining() || secuencia != esperada) {
+                    agregarProblema(problemas, "registro incompleto en byte " + inicio);
+                    break;
+                }
+                byte[] contenido = new byte[longitud];
+                datos.get(contenido);
+                CRC32C crc = new CRC32C();
+                crc.update(contenido);
+                if ((int) crc.getValue() != crcEsperado) {
+                    agregarProblema(problemas, "CRC inválido en secuencia " + secuencia + " (byte " + inicio + ")");
+                    break;
+                }
+                registros.add(new Registro(secuencia, contenido, inicio + ENCABEZADO + longitud));
+                esperada++;
+            }
+        }
+        return registros;
+    }
+
+    private int posicionFinal(Path archivo) throws IOException {
+        List<Registro> registros = leerSegmento(archivo, null);
+        return registros.isEmpty() ? 0 : registros.get(registros.size() - 1).fin;
+    }
+
+    private static void agregarProblema(List<String> problemas, String problema) {
+        if (problemas != null) {
+            problemas.add(problema);
+        }
+    }
+
+    private long leerPuntoControl() throws IOException {
+        Path punto = directorio.resolve(PUNTO_CONTROL);
+        if (!Files.exists(punto)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(punto, StandardCharsets.US_ASCII).trim());
+    }
+
+    /**
+     * Registro leído del diario
+     */
+    public static class Registro {
+        private final long secuencia;
+        private final byte[] datos;
+        private final int fin;
+
+        Registro(long secuencia, byte[] datos, int fin) {
+            this.secuencia = secuencia;
+            this.datos = datos;
+            this.fin = fin;
+        }
+
+        public long getSecuencia() {
+            return secuencia;
+        }
+
+        public byte[] getDatos() {
+            return datos;
+        }
+    }
+}
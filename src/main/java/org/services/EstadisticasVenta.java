@@ -0,0 +1,58 @@
+package org.services;
+
+/**
+ * Instantánea de la latencia de confirmación de ventas en la base de datos
+ */
+public class EstadisticasVenta {
+    private final long confirmadas;
+    private final long fallidas;
+    private final double promedioMs;
+    private final double maximaMs;
+    private final double ultimaMs;
+
+    EstadisticasVenta(long confirmadas, long fallidas, double promedioMs, double maximaMs, double ultimaMs) {
+        this.confirmadas = confirmadas;
+        this.fallidas = fallidas;
+        this.promedioMs = promedioMs;
+        this.maximaMs = maximaMs;
+        this.ultimaMs = ultimaMs;
+    }
+
+    /**
+     * Ventas confirmadas correctamente
+     */
+    public long getConfirmadas() {
+        return confirmadas;
+    }
+
+    /**
+     * Ventas cuya transacción se revirtió
+     */
+    public long getFallidas() {
+        return fallidas;
+    }
+
+    /**
+     * Tiempo promedio desde pedir la conexión hasta el commit, en milisegundos
+     */
+    public double getPromedioMs() {
+        return promedioMs;
+    }
+
+    public double getMaximaMs() {
+        return maximaMs;
+    }
+
+    public double getUltimaMs() {
+        return ultimaMs;
+    }
+
+    @Override
+    public String toString() {
+        return "EstadisticasVenta{" +
+                "confirmadas=" + confirmadas +
+                ", fallidas=" + fallidas +
+                String.format(", promedioMs=%.3f, maximaMs=%.3f, ultimaMs=%.3f", promedioMs, maximaMs, ultimaMs) +
+                '}';
+    }
+}
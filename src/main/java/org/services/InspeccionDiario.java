@@ -0,0 +1,25 @@
+package org.services;
+
+import org.utils.DatosLocales;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Herramienta de recuperación: muestra los segmentos del diario local de ventas,
+ * sus rangos de secuencia, cuántos registros siguen pendientes y dónde hay registros dañados.
+ *
+ * Uso: java org.services.InspeccionDiario [directorioDatos]
+ */
+public final class InspeccionDiario {
+
+    private InspeccionDiario() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dataDir = args.length > 0 ? Path.of(args[0]) : DatosLocales.directorio();
+        try (DiarioVentas diario = ColaVentas.abrirDiario(dataDir)) {
+            diario.inspeccionar(System.out);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.services;
+
+import org.models.Venta;
+import org.models.VentaProducto;
+
+import java.util.List;
+
+/**
+ * Venta aceptada en caja que espera ser escrita en la base de datos
+ */
+public class VentaPendiente {
+    private final String folio;
+    private final Venta venta;
+    private final long secuencia;
+    private final List<VentaProducto> productos;
+
+    VentaPendiente(String folio, long secuencia, Venta venta, List<VentaProducto> productos) {
+        this.folio = folio;
+        this.secuencia = secuencia;
+        this.venta = venta;
+        this.productos = productos;
+    }
+
+    /**
+     * Folio local con el que se aceptó la venta, válido aun antes de tener ID en la base de datos
+     */
+    public String getFolio() {
+        return folio;
+    }
+
+    /**
+     * Secuencia de la venta en el diario local
+     */
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    public Venta getVenta() {
+        return venta;
+    }
+
+    public List<VentaProducto> getProductos() {
+        return productos;
+    }
+
+    @Override
+    public String toString() {
+        return "VentaPendiente{" +
+                "folio='" + folio + '\'' +
+                ", total=" + venta.getTotal() +
+                ", productos=" + productos.size() +
+                '}';
+    }
+}
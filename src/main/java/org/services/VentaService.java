@@ -0,0 +1,162 @@
+package org.services;
+
+import org.dao.DiarioReplayDao;
+import org.dao.GeneradorIds;
+import org.dao.VentaDao;
+import org.dao.VentaProductoDao;
+import org.database.DatabaseConnection;
+import org.models.Venta;
+import org.models.VentaProducto;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registra una venta completa (encabezado y productos) en una sola transacción.
+ * Los productos se envían en un solo lote, así que el costo no crece con el tamaño del ticket
+ * y una falla a medio camino no deja ventas sin sus productos.
+ */
+public class VentaService {
+    private static VentaService instance;
+
+    private final DatabaseConnection dbConnection;
+    private final VentaDao ventaDao;
+    private final VentaProductoDao ventaProductoDao;
+    private final DiarioReplayDao diarioReplayDao;
+
+    private long confirmadas;
+    private long fallidas;
+    private long totalNanos;
+    private long maximaNanos;
+    private long ultimaNanos;
+
+    private VentaService() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.ventaDao = new VentaDao();
+        this.ventaProductoDao = new VentaProductoDao();
+        this.diarioReplayDao = new DiarioReplayDao();
+    }
+
+    public static synchronized VentaService getInstance() {
+        if (instance == null) {
+            instance = new VentaService();
+        }
+        return instance;
+    }
+
+    /**
+     * Inserta la venta y sus productos y confirma la transacción
+     *
+     * @param venta     Encabezado de la venta; si no trae ID se le asigna uno.
+     *                  Un ID que ya existe hace fallar la venta por llave duplicada.
+     * @param productos Productos de la venta; reciben el ID de la venta
+     * @return El ID de la venta confirmada, o null si se revirtió
+     */
+    public Integer registrarVenta(Venta venta, List<VentaProducto> productos) {
+        long inicio = System.nanoTime();
+        try {
+            // El ID se reserva antes de abrir la transacción; los productos ya no esperan una clave generada
+            if (venta.getIdVenta() == null) {
+                venta.setIdVenta(GeneradorIds.ventas().siguiente());
+            }
+        } catch (SQLException e) {
+            registrar(false, System.nanoTime() - inicio);
+            System.err.println("Error al asignar ID de venta: " + e.getMessage());
+            return null;
+        }
+
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Integer idVenta = ventaDao.insert(conn, venta);
+                for (VentaProducto ventaProducto : productos) {
+                    ventaProducto.setIdVenta(idVenta);
+                }
+                ventaProductoDao.insertAll(conn, productos);
+                conn.commit();
+
+                registrar(true, System.nanoTime() - inicio);
+                return idVenta;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            registrar(false, System.nanoTime() - inicio);
+            System.err.println("Error al registrar venta: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Escribe un lote de ventas pendientes en una sola transacción: un lote de encabezados,
+     * un lote con los productos de todas y un commit. Si algo falla no se escribe ninguna.
+     * Las ventas cuya secuencia del diario ya registró la terminal se omiten, y la última
+     * secuencia se actualiza en la misma transacción, así que reenviar un lote no duplica ventas.
+     */
+    void registrarLote(String terminal, List<VentaPendiente> pendientes) throws SQLException {
+        long inicio = System.nanoTime();
+        for (VentaPendiente pendiente : pendientes) {
+            if (pendiente.getVenta().getIdVenta() == null) {
+                pendiente.getVenta().setIdVenta(GeneradorIds.ventas().siguiente());
+            }
+        }
+
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                long registrada = diarioReplayDao.findUltimaSecuencia(conn, terminal);
+                List<VentaPendiente> nuevas = new ArrayList<>(pendientes.size());
+                List<Venta> ventas = new ArrayList<>(pendientes.size());
+                for (VentaPendiente pendiente : pendientes) {
+                    if (pendiente.getSecuencia() > registrada) {
+                        nuevas.add(pendiente);
+                        ventas.add(pendiente.getVenta());
+                    }
+                }
+
+                ventaDao.insertAll(conn, ventas);
+                List<VentaProducto> productos = new ArrayList<>();
+                for (VentaPendiente pendiente : nuevas) {
+                    for (VentaProducto ventaProducto : pendiente.getProductos()) {
+                        ventaProducto.setIdVenta(pendiente.getVenta().getIdVenta());
+                        productos.add(ventaProducto);
+                    }
+                }
+                ventaProductoDao.insertAll(conn, productos);
+                diarioReplayDao.updateUltimaSecuencia(conn, terminal,
+                        pendientes.get(pendientes.size() - 1).getSecuencia());
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            registrar(false, System.nanoTime() - inicio);
+            throw e;
+        }
+        registrar(true, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Obtiene la latencia de confirmación de ventas medida hasta ahora
+     */
+    public synchronized EstadisticasVenta getEstadisticas() {
+        double promedio = confirmadas == 0 ? 0 : totalNanos / (double) confirmadas / 1_000_000.0;
+        return new EstadisticasVenta(confirmadas, fallidas, promedio, maximaNanos / 1_000_000.0,
+                ultimaNanos / 1_000_000.0);
+    }
+
+    private synchronized void registrar(boolean confirmada, long nanos) {
+        if (!confirmada) {
+            fallidas++;
+            return;
+        }
+        confirmadas++;
+        totalNanos += nanos;
+        maximaNanos = Math.max(maximaNanos, nanos);
+        ultimaNanos = nanos;
+    }
+}
@@ -0,0 +1,17 @@
+package org.utils;
+
+import java.nio.file.Path;
+
+/**
+ * Ubicación de los datos que cada terminal guarda en disco (diario de ventas, instantánea del catálogo)
+ */
+public class DatosLocales {
+
+    /**
+     * Directorio de datos locales: -Dcobra.dataDir, o ~/.cobra_te por omisión
+     */
+    public static Path directorio() {
+        return Path.of(System.getProperty("cobra.dataDir",
+                Path.of(System.getProperty("user.home"), ".cobra_te").toString()));
+    }
+}
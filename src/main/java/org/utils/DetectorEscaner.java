@@ -0,0 +1,49 @@
+package org.utils;
+
+/**
+ * Distingue la lectura de un lector de códigos de barras de lo que escribe una persona.
+ *
+ * Los lectores que se conectan como teclado envían el código completo en unos pocos milisegundos y
+ * terminan con Enter; una persona tarda cientos de milisegundos entre teclas. Se considera lectura una
+ * ráfaga de al menos -Dcobra.escaner.longitudMinima caracteres (4 por defecto) sin pausas mayores a
+ * -Dcobra.escaner.intervaloMs (50 por defecto) hasta el Enter.
+ */
+public class DetectorEscaner {
+    private static final long INTERVALO_NANOS = Long.getLong("cobra.escaner.intervaloMs", 50) * 1_000_000L;
+    private static final int LONGITUD_MINIMA = Integer.getInteger("cobra.escaner.longitudMinima", 4);
+
+    private final StringBuilder rafaga = new StringBuilder();
+    private long ultimaTecla;
+
+    /**
+     * Registra un carácter escrito
+     *
+     * @param instante System.nanoTime() al recibir la tecla
+     */
+    public void tecla(String caracteres, long instante) {
+        // Una pausa larga indica que lo anterior lo escribió una persona
+        if (rafaga.length() > 0 && instante - ultimaTecla > INTERVALO_NANOS) {
+            rafaga.setLength(0);
+        }
+        for (int i = 0; i < caracteres.length(); i++) {
+            char c = caracteres.charAt(i);
+            if (!Character.isISOControl(c)) {
+                rafaga.append(c);
+            }
+        }
+        ultimaTecla = instante;
+    }
+
+    /**
+     * Cierra la ráfaga al recibir Enter
+     *
+     * @param instante System.nanoTime() al recibir el Enter
+     * @return El código leído, o null si lo escrito no vino del lector
+     */
+    public String terminar(long instante) {
+        String codigo = rafaga.length() >= LONGITUD_MINIMA && instante - ultimaTecla <= INTERVALO_NANOS
+                ? rafaga.toString() : null;
+        rafaga.setLength(0);
+        return codigo;
+    }
+}
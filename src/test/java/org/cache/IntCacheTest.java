@@ -0,0 +1,136 @@
+package org.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IntCacheTest {
+
+    @Test
+    void quitarRecorreLasEntradasQueDanLaVueltaAlFinalDeLaTabla() {
+        // Capacidad 4: tabla de 8 posiciones
+        IntCache<String> cache = new IntCache<>(4, 0);
+        List<Integer> alFinal = idsConIndice(cache, 7, 2);
+        int alInicio = idsConIndice(cache, 0, 1).get(0);
+        int primero = alFinal.get(0);
+        int segundo = alFinal.get(1);
+
+        // Quedan en las posiciones 7, 0 y 1
+        cache.put(primero, "a");
+        cache.put(segundo, "b");
+        cache.put(alInicio, "c");
+
+        cache.invalidar(primero);
+        assertNull(cache.get(primero));
+        assertEquals("b", cache.get(segundo));
+        assertEquals("c", cache.get(alInicio));
+        assertEquals(2, cache.size());
+
+        cache.invalidar(segundo);
+        assertEquals("c", cache.get(alInicio));
+        cache.put(primero, "a2");
+        assertEquals("a2", cache.get(primero));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void coincideConUnMapaTrasOperacionesAleatorias() {
+        // Más capacidad que claves posibles: nada se desaloja y el resultado debe ser el de un HashMap
+        IntCache<Integer> cache = new IntCache<>(256, 0);
+        Map<Integer, Integer> esperado = new HashMap<>();
+        Random random = new Random(7);
+        for (int paso = 0; paso < 200_000; paso++) {
+            int id = random.nextInt(200) - 20;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    cache.put(id, paso);
+                    esperado.put(id, paso);
+                }
+                case 1 -> {
+                    cache.invalidar(id);
+                    esperado.remove(id);
+                }
+                default -> assertEquals(esperado.get(id), cache.get(id), "paso " + paso + ", id " + id);
+            }
+            assertEquals(esperado.size(), cache.size());
+        }
+        for (Map.Entry<Integer, Integer> entrada : esperado.entrySet()) {
+            assertEquals(entrada.getValue(), cache.get(entrada.getKey()));
+        }
+    }
+
+    @Test
+    void alLlenarseDesalojaLaEntradaNoConsultada() {
+        IntCache<String> cache = new IntCache<>(3, 0);
+        cache.put(1, "uno");
+        cache.put(2, "dos");
+        cache.put(3, "tres");
+        cache.get(1);
+        cache.get(2);
+
+        cache.put(4, "cuatro");
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEstadisticas().getDesalojos());
+        assertNull(cache.get(3));
+        assertEquals("uno", cache.get(1));
+        assertEquals("dos", cache.get(2));
+        assertEquals("cuatro", cache.get(4));
+
+        // Sigue acotada aunque se agreguen muchas más
+        for (int id = 5; id < 100; id++) {
+            cache.put(id, "otro");
+        }
+        assertEquals(3, cache.size());
+        assertEquals("otro", cache.get(99));
+    }
+
+    @Test
+    void lasEntradasCaducan() throws InterruptedException {
+        IntCache<String> cache = new IntCache<>(8, 20);
+        cache.put(1, "uno");
+        assertEquals("uno", cache.get(1));
+
+        Thread.sleep(60);
+        assertNull(cache.get(1));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getEstadisticas().getCaducadas());
+
+        cache.put(1, "otra vez");
+        assertEquals("otra vez", cache.get(1));
+    }
+
+    @Test
+    void descartaLoLeidoAntesDeUnaInvalidacion() {
+        IntCache<String> cache = new IntCache<>(8, 0);
+        long generacion = cache.getGeneracion();
+        // Otra terminal escribe mientras se consultaba la base de datos
+        cache.invalidar(5);
+        cache.put(5, "viejo", generacion);
+        assertNull(cache.get(5));
+
+        generacion = cache.getGeneracion();
+        cache.invalidarTodo();
+        cache.put(5, "viejo", generacion);
+        assertNull(cache.get(5));
+
+        cache.put(5, "nuevo", cache.getGeneracion());
+        assertEquals("nuevo", cache.get(5));
+    }
+
+    private static List<Integer> idsConIndice(IntCache<?> cache, int indice, int cuantos) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 1; ids.size() < cuantos; id++) {
+            if (cache.indice(id) == indice) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,75 @@
+package org.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BusquedaTextoTest {
+    private static final String COLUMNAS = "nombre, descripcion";
+    private static final String MATCH = "MATCH(nombre, descripcion) AGAINST (? IN BOOLEAN MODE)";
+    private static final String LIKE = "(nombre LIKE ? OR descripcion LIKE ?)";
+
+    @Test
+    void losTerminosLargosUsanElIndiceComoPrefijo() throws Exception {
+        BusquedaTexto busqueda = new BusquedaTexto(COLUMNAS, "café americano");
+
+        assertEquals("SELECT *, " + MATCH + " AS relevancia FROM producto WHERE " + MATCH +
+                " ORDER BY relevancia DESC, nombre", busqueda.consulta("producto", "nombre", true));
+        assertEquals(Map.of(1, "+café* +americano*", 2, "+café* +americano*"), parametros(busqueda, true));
+    }
+
+    @Test
+    void losTerminosCortosSeFiltranConLike() throws Exception {
+        BusquedaTexto busqueda = new BusquedaTexto(COLUMNAS, "te xl");
+        assertEquals("SELECT *, 0 AS relevancia FROM producto WHERE " + LIKE + " AND " + LIKE +
+                " ORDER BY relevancia DESC, nombre", busqueda.consulta("producto", "nombre", true));
+        assertEquals(Map.of(1, "%te%", 2, "%te%", 3, "%xl%", 4, "%xl%"), parametros(busqueda, true));
+
+        BusquedaTexto mixta = new BusquedaTexto(COLUMNAS, "latte xl");
+        assertEquals("SELECT *, " + MATCH + " AS relevancia FROM producto WHERE " + MATCH + " AND " + LIKE +
+                " ORDER BY relevancia DESC, nombre", mixta.consulta("producto", "nombre", true));
+        assertEquals(Map.of(1, "+latte*", 2, "+latte*", 3, "%xl%", 4, "%xl%"), parametros(mixta, true));
+    }
+
+    @Test
+    void sinIndiceTodoEsLike() throws Exception {
+        BusquedaTexto busqueda = new BusquedaTexto(COLUMNAS, "latte xl");
+        assertEquals("SELECT *, 0 AS relevancia FROM producto WHERE " + LIKE + " AND " + LIKE +
+                " ORDER BY relevancia DESC, nombre", busqueda.consulta("producto", "nombre", false));
+        assertEquals(Map.of(1, "%latte%", 2, "%latte%", 3, "%xl%", 4, "%xl%"), parametros(busqueda, false));
+    }
+
+    @Test
+    void quitaLosOperadoresDelModoBooleano() throws Exception {
+        BusquedaTexto busqueda = new BusquedaTexto(COLUMNAS, "-cafe +\"latte\" (moka)* ~té <x> @3");
+        assertEquals("+cafe* +latte* +moka*", parametros(busqueda, true).get(1));
+
+        assertTrue(new BusquedaTexto(COLUMNAS, "+-*~\"()<>@").isVacia());
+        assertTrue(new BusquedaTexto(COLUMNAS, null).isVacia());
+        assertFalse(new BusquedaTexto(COLUMNAS, "a").isVacia());
+    }
+
+    /**
+     * Parámetros que asignar() pone en la consulta, por posición
+     */
+    private static Map<Integer, String> parametros(BusquedaTexto busqueda, boolean usarIndice) throws Exception {
+        Map<Integer, String> parametros = new TreeMap<>();
+        PreparedStatement stmt = (PreparedStatement) Proxy.newProxyInstance(BusquedaTextoTest.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, metodo, argumentos) -> {
+                    if (metodo.getName().equals("setString")) {
+                        parametros.put((Integer) argumentos[0], (String) argumentos[1]);
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(metodo.getName());
+                });
+        busqueda.asignar(stmt, usarIndice);
+        return parametros;
+    }
+}
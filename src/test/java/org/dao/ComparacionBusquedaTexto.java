@@ -0,0 +1,134 @@
+package org.dao;
+
+import org.database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Herramienta de medición: compara la búsqueda con LIKE contra la del índice FULLTEXT sobre un catálogo
+ * generado. Crea la tabla busquedaPrueba con las mismas columnas de texto que producto, la llena con
+ * productos aleatorios, mide cada consulta por ambos caminos y la elimina al terminar; no toca las
+ * tablas del punto de venta.
+ *
+ * Vive con las pruebas para que no viaje en el jar de la aplicación: crea y borra una tabla en la base
+ * de datos que tenga configurada DatabaseConnection, así que solo debe apuntarse a una base de desarrollo.
+ *
+ * Uso: mvn test-compile y después
+ * java -cp target/classes:target/test-classes:[driver de MariaDB] org.dao.ComparacionBusquedaTexto
+ * [numeroProductos] [repeticiones]
+ */
+public final class ComparacionBusquedaTexto {
+    private static final String TABLA = "busquedaPrueba";
+
+    private static final String[] CONSULTAS = {
+            "cafe", "capuchino", "te verde", "chocolate caliente", "galleta avena grande", "pan de", "xl"
+    };
+    private static final String[] PRODUCTOS = {
+            "Café", "Capuchino", "Latte", "Té", "Chocolate", "Pan", "Galleta", "Muffin", "Croissant",
+            "Frappé", "Malteada", "Jugo", "Agua", "Sándwich", "Bagel", "Pay", "Pastel", "Dona"
+    };
+    private static final String[] DETALLES = {
+            "Americano", "Verde", "Negro", "Caliente", "Frío", "Vainilla", "Caramelo", "Avena", "Nuez",
+            "Fresa", "Mango", "Queso", "Jamón", "Integral", "Chai", "Moka", "Canela", "Limón"
+    };
+    private static final String[] TAMANOS = {"Chico", "Mediano", "Grande", "XL"};
+
+    private ComparacionBusquedaTexto() {
+    }
+
+    public static void main(String[] args) throws SQLException {
+        int numeroProductos = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS " + TABLA);
+            stmt.execute("CREATE TABLE " + TABLA + " (id INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "nombre VARCHAR(100) NOT NULL, descripcion TEXT, INDEX idx_busquedaPrueba_nombre (nombre))");
+            try {
+                long inicio = System.nanoTime();
+                llenar(conn, numeroProductos);
+                System.out.printf("%d productos generados en %d ms%n", numeroProductos, milisegundos(inicio));
+
+                // El índice se crea después de llenar la tabla, que es más rápido que mantenerlo fila por fila
+                inicio = System.nanoTime();
+                stmt.execute("CREATE FULLTEXT INDEX ft_busquedaPrueba_texto ON " + TABLA +
+                        "(" + ProductoDao.COLUMNAS_TEXTO + ")");
+                System.out.printf("Índice FULLTEXT creado en %d ms%n%n", milisegundos(inicio));
+
+                System.out.printf("%-24s %12s %8s %14s %8s%n", "Consulta", "LIKE (ms)", "Filas", "FULLTEXT (ms)",
+                        "Filas");
+                for (String consulta : CONSULTAS) {
+                    BusquedaTexto busqueda = new BusquedaTexto(ProductoDao.COLUMNAS_TEXTO, consulta);
+                    Medicion like = medir(conn, busqueda, false, repeticiones);
+                    Medicion indice = medir(conn, busqueda, true, repeticiones);
+                    System.out.printf(Locale.ROOT, "%-24s %12.2f %8d %14.2f %8d%n", consulta,
+                            like.medianaMs, like.filas, indice.medianaMs, indice.filas);
+                }
+                System.out.println();
+                System.out.println("Mediana de " + repeticiones + " repeticiones. LIKE busca subcadenas y " +
+                        "FULLTEXT inicios de palabra, por eso las filas pueden diferir.");
+            } finally {
+                stmt.execute("DROP TABLE IF EXISTS " + TABLA);
+            }
+        }
+    }
+
+    private static void llenar(Connection conn, int numeroProductos) throws SQLException {
+        Random random = new Random(42);
+        List<String[]> filas = new ArrayList<>(numeroProductos);
+        for (int i = 0; i < numeroProductos; i++) {
+            String detalle = elegir(random, DETALLES);
+            String nombre = elegir(random, PRODUCTOS) + " " + detalle + " " + elegir(random, TAMANOS);
+            String descripcion = "Preparado con " + detalle.toLowerCase(Locale.ROOT) + " y " +
+                    elegir(random, DETALLES).toLowerCase(Locale.ROOT) + ", lote " + i;
+            filas.add(new String[]{nombre, descripcion});
+        }
+        InsercionPorLotes.insertarSinIds(conn, "INSERT INTO " + TABLA + " (nombre, descripcion) VALUES (?, ?)",
+                filas, (stmt, fila) -> {
+                    stmt.setString(1, fila[0]);
+                    stmt.setString(2, fila[1]);
+                });
+    }
+
+    private static Medicion medir(Connection conn, BusquedaTexto busqueda, boolean usarIndice, int repeticiones)
+            throws SQLException {
+        double[] tiempos = new double[repeticiones];
+        int filas = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(busqueda.consulta(TABLA, "nombre", usarIndice))) {
+            busqueda.asignar(stmt, usarIndice);
+            for (int r = 0; r < repeticiones; r++) {
+                long inicio = System.nanoTime();
+                filas = 0;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        filas++;
+                    }
+                }
+                tiempos[r] = (System.nanoTime() - inicio) / 1_000_000.0;
+            }
+        }
+        Arrays.sort(tiempos);
+        return new Medicion(tiempos[repeticiones / 2], filas);
+    }
+
+    private static String elegir(Random random, String[] opciones) {
+        return opciones[random.nextInt(opciones.length)];
+    }
+
+    private static long milisegundos(long inicioNanos) {
+        return (System.nanoTime() - inicioNanos) / 1_000_000;
+    }
+
+    private record Medicion(double medianaMs, int filas) {
+    }
+}
@@ -0,0 +1,115 @@
+package org.search;
+
+import org.models.Producto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceProductosTest {
+    private static final int CAFE_AMERICANO = 1;
+    private static final int CAPPUCCINO = 2;
+    private static final int CAPUCCINO_VAINILLA = 3;
+    private static final int TE_VERDE = 4;
+    private static final int LATTE = 5;
+    private static final int PASTEL_DE_CAFE = 6;
+    private static final int DESCAFEINADO = 7;
+    private static final int MALTEADA = 8;
+
+    private IndiceProductos indice;
+
+    @BeforeEach
+    void crearIndice() {
+        indice = new IndiceProductos();
+        indice.reconstruir(List.of(
+                producto(CAFE_AMERICANO, "Café Americano", "Grande", "Café de grano recién molido"),
+                producto(CAPPUCCINO, "Cappuccino", "Mediano", "Espresso con leche espumada"),
+                producto(CAPUCCINO_VAINILLA, "Capuccino Vainilla", "Chico", "Con jarabe de vainilla"),
+                producto(TE_VERDE, "Té Verde", "Mediano", "Infusión de hojas de té"),
+                producto(LATTE, "Latte", "Grande", "Leche con café espresso"),
+                producto(PASTEL_DE_CAFE, "Pastel de Café", "Rebanada", "Bizcocho húmedo"),
+                producto(DESCAFEINADO, "Descafeinado", "Grande", "Sin cafeína"),
+                producto(MALTEADA, "Malteada de Fresa", "XL", "Helado de fresa")));
+    }
+
+    @Test
+    void ordenaPorDondeCoincideLaConsulta() {
+        // Inicio del nombre, inicio de una palabra del nombre, dentro del nombre y solo en otros campos
+        assertEquals(List.of(CAFE_AMERICANO, PASTEL_DE_CAFE, DESCAFEINADO, LATTE), indice.buscar("caf"));
+    }
+
+    @Test
+    void noDistingueAcentosNiMayusculas() {
+        assertEquals(CAFE_AMERICANO, indice.buscar("cafe").get(0));
+        assertEquals(CAFE_AMERICANO, indice.buscar("CAFÉ americano").get(0));
+        assertEquals(TE_VERDE, indice.buscar("te verde").get(0));
+    }
+
+    @Test
+    void todosLosTerminosDebenAparecer() {
+        assertEquals(List.of(MALTEADA), indice.buscar("fresa xl"));
+        assertEquals(List.of(CAPPUCCINO, LATTE), indice.buscar("espresso leche"));
+        // "grano" se parece a "grande": esos van después, como parecidos
+        assertEquals(List.of(CAFE_AMERICANO, DESCAFEINADO, LATTE), indice.buscar("grande grano"));
+    }
+
+    @Test
+    void toleraErroresDeEscritura() {
+        List<Integer> capuchino = indice.buscar("capuchino");
+        assertTrue(capuchino.contains(CAPPUCCINO), capuchino.toString());
+        assertTrue(capuchino.contains(CAPUCCINO_VAINILLA), capuchino.toString());
+
+        assertEquals(CAFE_AMERICANO, indice.buscar("cfae americno").get(0));
+        assertEquals(List.of(), indice.buscar("zzzz"));
+    }
+
+    @Test
+    void losParecidosVanDespuesDeLosExactos() {
+        // Exacto en el nombre de uno y con un error en el del otro
+        List<Integer> resultado = indice.buscar("capuccino");
+        assertEquals(CAPUCCINO_VAINILLA, resultado.get(0));
+        assertEquals(List.of(CAPUCCINO_VAINILLA, CAPPUCCINO), resultado);
+    }
+
+    @Test
+    void losTerminosCortosNoBuscanParecidos() {
+        assertEquals(List.of(), indice.buscar("cfa"));
+    }
+
+    @Test
+    void seActualizaProductoPorProducto() {
+        indice.quitar(CAFE_AMERICANO);
+        assertFalse(indice.buscar("americano").contains(CAFE_AMERICANO));
+
+        indice.agregar(producto(CAFE_AMERICANO, "Café Americano Doble", "Grande", ""));
+        assertEquals(List.of(CAFE_AMERICANO), indice.buscar("doble"));
+
+        // Reemplazar un producto quita sus palabras anteriores
+        indice.agregar(producto(CAFE_AMERICANO, "Café Negro", "Grande", ""));
+        assertEquals(List.of(), indice.buscar("doble"));
+        assertEquals(List.of(CAFE_AMERICANO), indice.buscar("negro"));
+        assertEquals(8, indice.size());
+    }
+
+    @Test
+    void comparaContraElInicioDeLaPalabra() {
+        assertEquals(2, new IndiceProductos.ComparadorParecido("capuchino", 2).distancia("cappuccino"));
+        // Intercambio de dos letras vecinas
+        assertEquals(1, new IndiceProductos.ComparadorParecido("cfae", 1).distancia("cafe"));
+        // Un término escrito a medias coincide con el inicio de la palabra
+        assertEquals(0, new IndiceProductos.ComparadorParecido("capu", 1).distancia("capuccino"));
+        // Más allá del máximo devuelve maximo + 1
+        assertEquals(2, new IndiceProductos.ComparadorParecido("verde", 1).distancia("azul"));
+    }
+
+    private static Producto producto(int id, String nombre, String tamano, String descripcion) {
+        Producto producto = new Producto(nombre, descripcion, tamano, new BigDecimal("10.00"));
+        producto.setIdProducto(id);
+        return producto;
+    }
+}
@@ -0,0 +1,29 @@
+package org.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NormalizadorTest {
+
+    @Test
+    void quitaAcentosYDieresis() {
+        assertEquals("cafe", Normalizador.normalizar("Café"));
+        assertEquals("nandu", Normalizador.normalizar("Ñandú"));
+        assertEquals("te verde", Normalizador.normalizar("Té Verde"));
+        assertEquals("pinguino", Normalizador.normalizar("Pingüino"));
+        assertEquals("frappe", Normalizador.normalizar("FRAPPÉ"));
+    }
+
+    @Test
+    void dejaUnSoloEspacioEntrePalabras() {
+        assertEquals("cafe americano", Normalizador.normalizar("  Café \t Americano\n"));
+        assertEquals("latte 355 ml", Normalizador.normalizar("Latte  355 ml "));
+    }
+
+    @Test
+    void textoVacioONulo() {
+        assertEquals("", Normalizador.normalizar(null));
+        assertEquals("", Normalizador.normalizar("   "));
+    }
+}
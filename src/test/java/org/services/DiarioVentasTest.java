@@ -0,0 +1,194 @@
+package org.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DiarioVentasTest {
+    private static final int ENCABEZADO = 16;
+    private static final int SEGMENTO = 4096;
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void recuperaLosRegistrosAlReabrir() throws IOException {
+        try (DiarioVentas diario = abrir(SEGMENTO)) {
+            diario.agregar(datos("venta 1"));
+            diario.agregar(datos("venta 2"));
+            diario.agregar(datos("venta 3"));
+        }
+
+        try (DiarioVentas diario = abrir(SEGMENTO)) {
+            assertEquals(List.of(1L, 2L, 3L), secuencias(diario.leerPendientes()));
+            assertArrayEquals(datos("venta 2"), diario.leerPendientes().get(1).getDatos());
+            assertEquals(4, diario.agregar(datos("venta 4")));
+        }
+    }
+
+    @Test
+    void descartaUnRegistroSinLongitudAlFinal() throws IOException {
+        int fin;
+        try (DiarioVentas diario = abrir(SEGMENTO)) {
+            diario.agregar(datos("venta 1"));
+            diario.agregar(datos("venta 2"));
+            fin = 2 * (ENCABEZADO + datos("venta 1").length);
+        }
+        // Corte a mitad de agregar(): el contenido quedó escrito pero la longitud (que va al final) no
+        Path segmento = unicoSegmento();
+        escribir(segmento, fin + 4, ByteBuffer.allocate(12 + 7).putInt(1234).putLong(3).put(datos("venta 3")).flip());
+
+        try (DiarioVentas diario = abrir(SEGMENTO)) {
+            assertEquals(List.of(1L, 2L), secuencias(diario.leerPendientes()));
+            assertEquals(3, diario.agregar(datos("otra 3")));
+        }
+        try (DiarioVentas diario = abrir(SEGMENTO)) {
+            List<DiarioVentas.Registro> pendientes = diario.leerPendientes();
+            assertEquals(List.of(1L, 2L, 3L), secuencias(pendientes));
+            assertArrayEquals(datos("otra 3"), pendientes.get(2).getDatos());
+        }
+    }
+
+    @Test
+    void sobrescribeUnRegistroTruncado() throws IOException {
+        int registro = ENCABEZADO + datos("venta 1").length;
+        try (DiarioVentas diario = abrir(SEGMENTO)) {
+            diario.agregar(datos("venta 1"));
+            diario.agregar(datos("venta 2"));
+        }
+        // El archivo termina a la mitad del segundo registro
+        try (FileChannel canal = FileChannel.open(unicoSegmento(), StandardOpenOption.WRITE)) {
+            canal.truncate(registro + ENCABEZADO + 2);
+        }
+
+        try (DiarioVentas diario = abrir(SEGMENTO)) {
+            assertEquals(List.of(1L), secuencias(diario.leerPendientes()));
+            assertEquals(2, diario.agregar(datos("nueva 2")));
+            assertEquals(3, diario.agregar(datos("venta 3")));
+        }
+        try (DiarioVentas diario = abrir(SEGMENTO)) {
+            List<DiarioVentas.Registro> pendientes = diario.leerPendientes();
+            assertEquals(List.of(1L, 2L, 3L), secuencias(pendientes));
+            assertArrayEquals(datos("nueva 2"), pendientes.get(1).getDatos());
+        }
+    }
+
+    @Test
+    void seDetieneEnUnRegistroConCrcInvalido() throws IOException {
+        int registro = ENCABEZADO + datos("venta 1").length;
+        try (DiarioVentas diario = abrir(SEGMENTO)) {
+            diario.agregar(datos("venta 1"));
+            diario.agregar(datos("venta 2"));
+            diario.agregar(datos("venta 3"));
+        }
+        // Un byte dañado en el contenido del segundo registro
+        escribir(unicoSegmento(), registro + ENCABEZADO, ByteBuffer.wrap(new byte[]{'X'}));
+
+        try (DiarioVentas diario = abrir(SEGMENTO)) {
+            assertEquals(List.of(1L), secuencias(diario.leerPendientes()));
+            // Lo que sigue al registro dañado no es confiable: se continúa después del último válido
+            assertEquals(2, diario.agregar(datos("nueva 2")));
+            assertEquals(List.of(1L, 2L), secuencias(diario.leerPendientes()));
+        }
+    }
+
+    @Test
+    void cambiaDeSegmentoCuandoNoCabeElRegistro() throws IOException {
+        // Caben dos registros por segmento
+        int tamano = 2 * (ENCABEZADO + datos("venta 1").length) + 4;
+        try (DiarioVentas diario = abrir(tamano)) {
+            for (int i = 1; i <= 5; i++) {
+                diario.agregar(datos("venta " + i));
+            }
+            assertEquals(List.of("segmento-00000000000000000001.diario", "segmento-00000000000000000003.diario",
+                    "segmento-00000000000000000005.diario"), segmentos());
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L), secuencias(diario.leerPendientes()));
+        }
+
+        try (DiarioVentas diario = abrir(tamano)) {
+            assertEquals(6, diario.agregar(datos("venta 6")));
+            assertEquals(7, diario.agregar(datos("venta 7")));
+            assertEquals(4, segmentos().size());
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), secuencias(diario.leerPendientes()));
+        }
+    }
+
+    @Test
+    void elPuntoDeControlEliminaLosSegmentosConfirmados() throws IOException {
+        int tamano = 2 * (ENCABEZADO + datos("venta 1").length) + 4;
+        try (DiarioVentas diario = abrir(tamano)) {
+            for (int i = 1; i <= 5; i++) {
+                diario.agregar(datos("venta " + i));
+            }
+            // El segmento 1 (secuencias 1 y 2) ya no tiene pendientes; el 3 conserva la 4
+            diario.confirmarHasta(3);
+            assertEquals(List.of("segmento-00000000000000000003.diario", "segmento-00000000000000000005.diario"),
+                    segmentos());
+            assertEquals(List.of(4L, 5L), secuencias(diario.leerPendientes()));
+        }
+
+        try (DiarioVentas diario = abrir(tamano)) {
+            assertEquals(3, diario.getConfirmada());
+            assertEquals(List.of(4L, 5L), secuencias(diario.leerPendientes()));
+            diario.confirmarHasta(5);
+            assertEquals(List.of("segmento-00000000000000000005.diario"), segmentos());
+            assertEquals(List.of(), diario.leerPendientes());
+        }
+
+        // Confirmado todo, la secuencia continúa después de la última confirmada
+        try (DiarioVentas diario = abrir(tamano)) {
+            assertEquals(6, diario.agregar(datos("venta 6")));
+            assertEquals(List.of(6L), secuencias(diario.leerPendientes()));
+        }
+    }
+
+    private DiarioVentas abrir(int tamanoSegmento) throws IOException {
+        return new DiarioVentas(directorio, tamanoSegmento, DiarioVentas.Sincronizacion.NUNCA, 0);
+    }
+
+    private static byte[] datos(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<Long> secuencias(List<DiarioVentas.Registro> registros) {
+        List<Long> secuencias = new ArrayList<>();
+        for (DiarioVentas.Registro registro : registros) {
+            secuencias.add(registro.getSecuencia());
+        }
+        return secuencias;
+    }
+
+    private List<String> segmentos() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.map(archivo -> archivo.getFileName().toString())
+                    .filter(nombre -> nombre.startsWith("segmento-"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path unicoSegmento() throws IOException {
+        List<String> segmentos = segmentos();
+        assertEquals(1, segmentos.size());
+        return directorio.resolve(segmentos.get(0));
+    }
+
+    private static void escribir(Path archivo, long posicion, ByteBuffer contenido) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+            canal.write(contenido, posicion);
+        }
+    }
+}